@@ -0,0 +1,74 @@
+package fr.anthonyquere.fizzbuzz;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class FizzBuzzBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int size;
+
+    private byte[] buffer;
+    private FizzBuzzEncoder encoder;
+    private FizzBuzzVectorEncoder vectorEncoder;
+
+    @Setup
+    public void setup() {
+        buffer = new byte[(int) new FizzBuzzIndex().sizeOf(1, size + 1L)];
+        encoder = new FizzBuzzEncoder(1);
+        vectorEncoder = new FizzBuzzVectorEncoder();
+    }
+
+    @Benchmark
+    public List<String> startFizzBuzz() {
+        return FizzBuzz.startFizzBuzz(size);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<String> startFizzBuzzThreads() {
+        return FizzBuzz.startFizzBuzz(size);
+    }
+
+    @Benchmark
+    public long streamFizzBuzz() {
+        return FizzBuzz.streamFizzBuzz(1, size + 1L).mapToInt(String::length).sum();
+    }
+
+    @Benchmark
+    public int encoder() {
+        encoder.seek(1);
+        return encoder.encode(buffer, 0, size + 1L);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int encoderThreads() {
+        encoder.seek(1);
+        return encoder.encode(buffer, 0, size + 1L);
+    }
+
+    @Benchmark
+    public int vectorEncoder() {
+        return vectorEncoder.encode(1, size + 1L, buffer);
+    }
+}
@@ -0,0 +1,67 @@
+package fr.anthonyquere.teashop;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CupFleetBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int cups;
+
+    private TeaCup[] teaCups;
+    private CupFleet fleet;
+    private long now;
+
+    @Setup
+    public void setup() {
+        Tea greenTea = Tea.of("Green Tea", 120, 80, true);
+        teaCups = new TeaCup[cups];
+        fleet = new CupFleet(cups);
+        for (int i = 0; i < cups; i++) {
+            teaCups[i] = new TeaCup();
+            teaCups[i].addWater(75 + i % 11);
+            teaCups[i].addTea(greenTea);
+            fleet.add(teaCups[i]);
+        }
+        now = TeaClock.system().currentTimeSeconds() + 120;
+    }
+
+    @Benchmark
+    public BitSet teaCups() {
+        BitSet ready = new BitSet(cups);
+        for (int i = 0; i < cups; i++) {
+            if (teaCups[i].isReadyToDrink()) {
+                ready.set(i);
+            }
+        }
+        return ready;
+    }
+
+    @Benchmark
+    public BitSet fleet() {
+        return fleet.evaluate(now);
+    }
+
+    @Benchmark
+    public BitSet fleetParallel() {
+        return fleet.evaluateParallel(now);
+    }
+}
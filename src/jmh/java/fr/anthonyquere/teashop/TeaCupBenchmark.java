@@ -0,0 +1,44 @@
+package fr.anthonyquere.teashop;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TeaCupBenchmark {
+
+    private TeaCup cup;
+
+    @Setup
+    public void setup() {
+        cup = new TeaCup();
+        cup.addWater(80);
+        cup.addTea(new Tea("Green Tea", 0, 80, true));
+    }
+
+    @Benchmark
+    public boolean isReadyToDrink() {
+        return cup.isReadyToDrink();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean isReadyToDrinkThreads() {
+        return cup.isReadyToDrink();
+    }
+}
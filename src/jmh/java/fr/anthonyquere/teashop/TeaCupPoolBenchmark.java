@@ -0,0 +1,64 @@
+package fr.anthonyquere.teashop;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * New cup per order against pooled cups; run with -prof gc to compare the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TeaCupPoolBenchmark {
+
+    private TeaShop shop;
+    private TeaShop pooledShop;
+
+    @Setup
+    public void setup() {
+        Tea tea = new Tea("Green Tea", 0, 80, true);
+        shop = new TeaShop(80);
+        shop.addTea(tea);
+        pooledShop = new TeaShop(80, new TeaCupPool());
+        pooledShop.addTea(tea);
+    }
+
+    @Benchmark
+    public Tea newCup() {
+        return shop.prepareTea("Green Tea").drink();
+    }
+
+    @Benchmark
+    public Tea pooledCup() {
+        TeaCup cup = pooledShop.prepareTea("Green Tea");
+        Tea tea = cup.drink();
+        pooledShop.releaseCup(cup);
+        return tea;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Tea newCupThreads() {
+        return newCup();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Tea pooledCupThreads() {
+        return pooledCup();
+    }
+}
@@ -0,0 +1,136 @@
+package fr.anthonyquere.teashop;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TeaShopBenchmark {
+
+    // One hit in four orders misses in the mixed case
+    private static final String[] MIXED_ORDERS = {"Green Tea", "earl grey", "Matcha", "CHAMOMILE"};
+
+    private TeaShop shop;
+    private OrderCoalescer coalescer;
+    private TeaShop meteredShop;
+
+    @State(Scope.Thread)
+    public static class Orders {
+        private int next;
+
+        String nextOrder() {
+            return MIXED_ORDERS[next++ & (MIXED_ORDERS.length - 1)];
+        }
+    }
+
+    @Setup
+    public void setup() {
+        shop = new TeaShop(90);
+        shop.addTea(new Tea("Green Tea", 120, 80, true));
+        shop.addTea(new Tea("Earl Grey", 180, 95, false));
+        shop.addTea(new Tea("Chamomile", 300, 100, true));
+        coalescer = new OrderCoalescer(1, 16);
+        meteredShop = new TeaShop(90);
+        meteredShop.setMetrics(new ShopMetrics());
+        meteredShop.addTea(new Tea("Earl Grey", 180, 95, false));
+    }
+
+    private TeaCup prepare(String teaName) {
+        try {
+            return shop.prepareTea(teaName);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public TeaCup prepareTeaHit() {
+        return shop.prepareTea("Earl Grey");
+    }
+
+    @Benchmark
+    public TeaCup prepareTeaMiss() {
+        return prepare("Matcha");
+    }
+
+    @Benchmark
+    public TeaCup prepareTeaMixed(Orders orders) {
+        return prepare(orders.nextOrder());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TeaCup prepareTeaHitThreads() {
+        return shop.prepareTea("Earl Grey");
+    }
+
+    // Thread sweep of the mixed orders, from 1 to 32 threads: run with -Djmh.args="TeaShopBenchmark.prepareTeaMixed"
+    // and compare the throughput of each variant to prepareTeaMixed
+
+    @Benchmark
+    @Threads(2)
+    public TeaCup prepareTeaMixed2Threads(Orders orders) {
+        return prepare(orders.nextOrder());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TeaCup prepareTeaMixedThreads(Orders orders) {
+        return prepare(orders.nextOrder());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TeaCup prepareTeaMixed8Threads(Orders orders) {
+        return prepare(orders.nextOrder());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public TeaCup prepareTeaMixed16Threads(Orders orders) {
+        return prepare(orders.nextOrder());
+    }
+
+    @Benchmark
+    @Threads(32)
+    public TeaCup prepareTeaMixed32Threads(Orders orders) {
+        return prepare(orders.nextOrder());
+    }
+
+    @Benchmark
+    public TeaCup prepareTeaCoalesced() {
+        return shop.prepareTea("Earl Grey", coalescer);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TeaCup prepareTeaCoalescedThreads() {
+        return shop.prepareTea("Earl Grey", coalescer);
+    }
+
+    @Benchmark
+    public TeaCup prepareTeaHitMetered() {
+        return meteredShop.prepareTea("Earl Grey");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TeaCup prepareTeaHitMeteredThreads() {
+        return meteredShop.prepareTea("Earl Grey");
+    }
+}
@@ -1,13 +1,70 @@
 package fr.anthonyquere.fizzbuzz;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class FizzBuzz {
 
-    public static void main(String[] args) {
-        System.out.println("Hello, World!");
-        startFizzBuzz(10).forEach(System.out::println);
+    /**
+     * Usage : FizzBuzz [count] [--bulk] [--out fichier]
+     * Avec --bulk (ou --out), la sortie passe par le FizzBuzzWriter parallèle au lieu d'un println par élément.
+     */
+    public static void main(String[] args) throws IOException {
+        int count = 10;
+        boolean bulk = false;
+        Path output = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--bulk" -> bulk = true;
+                case "--out" -> {
+                    if (i + 1 == args.length) {
+                        // --out sans nom de fichier : on rappelle l'usage plutôt que de lever une exception
+                        exitWithUsage();
+                    }
+                    bulk = true;
+                    output = Path.of(args[++i]);
+                }
+                default -> count = Integer.parseInt(args[i]);
+            }
+        }
+        if (count < 0) {
+            // Même comportement avec ou sans --bulk
+            exitWithUsage();
+        }
+
+        if (!bulk) {
+            System.out.println("Hello, World!");
+            startFizzBuzz(count).forEach(System.out::println);
+            return;
+        }
+
+        FizzBuzzWriter writer = new FizzBuzzWriter();
+        if (output == null) {
+            System.out.flush();
+            FileChannel stdout = new FileOutputStream(FileDescriptor.out).getChannel();
+            writer.write(1, count + 1L, stdout);
+        } else {
+            try (FileChannel file = FileChannel.open(output, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writer.write(1, count + 1L, file);
+            }
+        }
+    }
+
+    private static void exitWithUsage() {
+        System.err.println("Usage : FizzBuzz [count] [--bulk] [--out fichier], avec count positif ou nul");
+        System.exit(1);
     }
 
 /* 
@@ -15,30 +72,104 @@ public class FizzBuzz {
      * @return Une liste de chaînes de caractères selon les règles du jeu FizzBuzz
      */
     public static List<String> startFizzBuzz(int count) {
-        List<String> result = new ArrayList<>();
-        
+        return startFizzBuzz(FizzBuzzRules.DEFAULT, count);
+    }
+
+    /**
+     * @param rules Les règles à appliquer
+     * @param count Le nombre d'éléments à générer
+     * @return Une liste de chaînes de caractères selon ces règles
+     */
+    public static List<String> startFizzBuzz(FizzBuzzRules rules, int count) {
         // Si count est 0, retourner une liste vide
         if (count <= 0) {
-            return result;
-        }
-        
-        // Générer les éléments de la liste
-        for (int i = 0; i < count; i++) {
-            int number = i + 1;
-            boolean divisibleBy3 = number % 3 == 0;
-            boolean divisibleBy5 = number % 5 == 0;
-            
-            if (divisibleBy3 && divisibleBy5) {
-                result.add("FizzBuzz");
-            } else if (divisibleBy3) {
-                result.add("Fizz");
-            } else if (divisibleBy5) {
-                result.add("Buzz");
-            } else {
-                result.add(String.valueOf(number));
-            }
+            return new ArrayList<>();
+        }
+
+        // Collecter le flux paresseux dans une liste dimensionnée à l'avance
+        return streamFizzBuzz(rules, 1, count + 1L)
+                .collect(Collectors.toCollection(() -> new ArrayList<>(count)));
+    }
+
+    /**
+     * Génère à la demande les éléments FizzBuzz des nombres de l'intervalle [from, to).
+     * Aucun élément n'est matérialisé à l'avance : la mémoire utilisée est constante.
+     *
+     * @param from Le premier nombre (inclus), au moins 1
+     * @param to Le dernier nombre (exclu)
+     * @return Un flux ordonné, découpable pour un traitement parallèle
+     */
+    public static Stream<String> streamFizzBuzz(long from, long to) {
+        return streamFizzBuzz(FizzBuzzRules.DEFAULT, from, to);
+    }
+
+    /**
+     * @param rules Les règles à appliquer
+     * @param from Le premier nombre (inclus), au moins 1
+     * @param to Le dernier nombre (exclu)
+     * @return Un flux ordonné des éléments de l'intervalle [from, to) selon ces règles
+     */
+    public static Stream<String> streamFizzBuzz(FizzBuzzRules rules, long from, long to) {
+        checkRange(from, to);
+        return StreamSupport.stream(new FizzBuzzSpliterator(rules, from, to), false);
+    }
+
+    /**
+     * @param from Le premier nombre (inclus), au moins 1
+     * @param to Le dernier nombre (exclu)
+     * @return Un itérateur paresseux sur les éléments FizzBuzz de l'intervalle [from, to)
+     */
+    public static Iterator<String> iterateFizzBuzz(long from, long to) {
+        checkRange(from, to);
+        return Spliterators.iterator(new FizzBuzzSpliterator(FizzBuzzRules.DEFAULT, from, to));
+    }
+
+    /**
+     * Vue de la même liste que {@link #startFizzBuzz(int)}, sans aucun élément stocké :
+     * chaque élément est calculé à la lecture.
+     *
+     * @param count Le nombre d'éléments de la liste
+     * @return Une liste en lecture seule à accès direct
+     */
+    public static List<String> fizzBuzzList(int count) {
+        return new FizzBuzzList(FizzBuzzRules.DEFAULT, Math.max(count, 0));
+    }
+
+    /**
+     * @param index La position dans la liste FizzBuzz, à partir de 0
+     * @return L'élément à cette position, sans générer les précédents
+     */
+    public static String fizzBuzzAt(long index) {
+        if (index < 0 || index == Long.MAX_VALUE) {
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+        }
+        return fizzBuzz(index + 1);
+    }
+
+    /**
+     * @param element "Fizz", "Buzz" ou "FizzBuzz"
+     * @param from Le premier nombre (inclus), au moins 1
+     * @param to Le dernier nombre (exclu)
+     * @return Le nombre d'occurrences de cet élément pour les nombres de [from, to), en temps constant
+     */
+    public static long countFizzBuzz(String element, long from, long to) {
+        return FizzBuzzRules.DEFAULT.count(element, from, to);
+    }
+
+    /**
+     * @param number Le nombre à convertir
+     * @return L'élément FizzBuzz correspondant à ce nombre
+     */
+    public static String fizzBuzz(long number) {
+        return FizzBuzzRules.DEFAULT.format(number);
+    }
+
+    static void checkRange(long from, long to) {
+        if (from < 1) {
+            throw new IllegalArgumentException("FizzBuzz starts at 1, got from = " + from);
+        }
+        if (to < from) {
+            throw new IllegalArgumentException("Invalid range: [" + from + ", " + to + ")");
         }
-        
-        return result;
     }
 }
@@ -0,0 +1,175 @@
+package fr.anthonyquere.fizzbuzz;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Formate des lignes FizzBuzz directement dans un tampon fourni par l'appelant
+ * (byte[], char[], ByteBuffer ou Appendable), une ligne par nombre terminée par '\n'.
+ * Le nombre courant est gardé sous forme de chiffres ASCII incrémentés en place et les règles
+ * sont parcourues avec un {@link FizzBuzzRules.Cursor} : une fois créé, l'encodeur n'alloue plus rien.
+ * Un encodeur n'est pas thread-safe, chaque thread utilise le sien.
+ */
+public final class FizzBuzzEncoder {
+
+    // Un long positif tient sur 19 chiffres
+    private static final int MAX_DIGITS = 19;
+
+    private final FizzBuzzRules rules;
+    private final byte[] digits = new byte[MAX_DIGITS];
+    private int firstDigit;
+    private long next;
+    private final FizzBuzzRules.Cursor cursor;
+    // Masque des règles vérifiées par le nombre courant
+    private int mask;
+
+    /**
+     * @param from Le premier nombre à formater, au moins 1
+     */
+    public FizzBuzzEncoder(long from) {
+        this(FizzBuzzRules.DEFAULT, from);
+    }
+
+    /**
+     * @param rules Les règles à appliquer
+     * @param from Le premier nombre à formater, au moins 1
+     */
+    public FizzBuzzEncoder(FizzBuzzRules rules, long from) {
+        this.rules = rules;
+        this.cursor = rules.cursor(from);
+        seek(from);
+    }
+
+    /**
+     * Repositionne l'encodeur sur un autre nombre, sans allocation.
+     *
+     * @param number Le prochain nombre à formater, au moins 1
+     */
+    public void seek(long number) {
+        FizzBuzz.checkRange(number, number);
+        next = number;
+        cursor.seek(number);
+        mask = cursor.next();
+        firstDigit = MAX_DIGITS;
+        do {
+            digits[--firstDigit] = (byte) ('0' + number % 10);
+            number /= 10;
+        } while (number > 0);
+        for (int i = 0; i < firstDigit; i++) {
+            digits[i] = '0';
+        }
+    }
+
+    /**
+     * @return Le prochain nombre qui sera formaté
+     */
+    public long next() {
+        return next;
+    }
+
+    /**
+     * Formate autant de lignes complètes que possible, jusqu'au nombre {@code to} exclu.
+     *
+     * @return La position qui suit la dernière ligne écrite
+     */
+    public int encode(byte[] buffer, int offset, long to) {
+        int position = offset;
+        while (next < to) {
+            byte[] word = rules.wordBytes(mask);
+            int length = word != null ? word.length : MAX_DIGITS - firstDigit;
+            if (position + length >= buffer.length) {
+                break;
+            }
+            if (word != null) {
+                System.arraycopy(word, 0, buffer, position, length);
+            } else {
+                System.arraycopy(digits, firstDigit, buffer, position, length);
+            }
+            position += length;
+            buffer[position++] = '\n';
+            advance();
+        }
+        return position;
+    }
+
+    /**
+     * Formate autant de lignes complètes que possible, jusqu'au nombre {@code to} exclu.
+     *
+     * @return La position qui suit la dernière ligne écrite
+     */
+    public int encode(char[] buffer, int offset, long to) {
+        int position = offset;
+        while (next < to) {
+            String word = rules.word(mask);
+            int length = word != null ? word.length() : MAX_DIGITS - firstDigit;
+            if (position + length >= buffer.length) {
+                break;
+            }
+            if (word != null) {
+                word.getChars(0, length, buffer, position);
+                position += length;
+            } else {
+                for (int i = firstDigit; i < MAX_DIGITS; i++) {
+                    buffer[position++] = (char) digits[i];
+                }
+            }
+            buffer[position++] = '\n';
+            advance();
+        }
+        return position;
+    }
+
+    /**
+     * Formate autant de lignes complètes que le tampon peut en recevoir, jusqu'au nombre {@code to} exclu.
+     * La position du tampon avance d'autant.
+     */
+    public void encode(ByteBuffer buffer, long to) {
+        while (next < to) {
+            byte[] word = rules.wordBytes(mask);
+            int length = word != null ? word.length : MAX_DIGITS - firstDigit;
+            if (length >= buffer.remaining()) {
+                break;
+            }
+            if (word != null) {
+                buffer.put(word);
+            } else {
+                buffer.put(digits, firstDigit, length);
+            }
+            buffer.put((byte) '\n');
+            advance();
+        }
+    }
+
+    /**
+     * Ajoute les lignes des nombres restants jusqu'à {@code to} exclu.
+     */
+    public void encode(Appendable out, long to) throws IOException {
+        while (next < to) {
+            String word = rules.word(mask);
+            if (word != null) {
+                out.append(word);
+            } else {
+                for (int i = firstDigit; i < MAX_DIGITS; i++) {
+                    out.append((char) digits[i]);
+                }
+            }
+            out.append('\n');
+            advance();
+        }
+    }
+
+    private void advance() {
+        next++;
+        mask = cursor.next();
+
+        // Incrémenter le compteur ASCII en propageant la retenue
+        int i = MAX_DIGITS - 1;
+        while (digits[i] == '9') {
+            digits[i--] = '0';
+        }
+        digits[i]++;
+        if (i < firstDigit) {
+            firstDigit = i;
+        }
+    }
+}
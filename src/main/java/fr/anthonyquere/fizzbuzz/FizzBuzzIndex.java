@@ -0,0 +1,56 @@
+package fr.anthonyquere.fizzbuzz;
+
+/**
+ * Position en octets de chaque ligne dans la sortie FizzBuzz (une ligne par nombre à partir de 1, terminée par '\n').
+ * Le calcul est arithmétique : les mots sont comptés règle par règle et les nombres affichés
+ * par tranche de nombre de chiffres, sans jamais parcourir l'intervalle.
+ */
+public class FizzBuzzIndex {
+
+    // Un long positif a au plus 19 chiffres
+    private static final int MAX_DIGITS = 19;
+
+    private final FizzBuzzRules rules;
+
+    public FizzBuzzIndex() {
+        this(FizzBuzzRules.DEFAULT);
+    }
+
+    public FizzBuzzIndex(FizzBuzzRules rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * @param number Un nombre, au moins 1
+     * @return La position du premier octet de sa ligne, soit la taille des lignes des nombres 1 à number - 1
+     * @throws ArithmeticException si cette position dépasse Long.MAX_VALUE
+     */
+    public long offsetOf(long number) {
+        FizzBuzz.checkRange(1, number);
+        long lines = number - 1;
+
+        // Les mots combinés sont des concaténations : chaque règle compte pour chacun de ses multiples
+        long bytes = lines;
+        for (int rule = 0; rule < rules.ruleCount(); rule++) {
+            long multiples = lines / rules.divisor(rule);
+            bytes = Math.addExact(bytes, Math.multiplyExact(multiples, rules.wordBytes(1 << rule).length));
+        }
+
+        // Les nombres affichés tels quels, tranche de chiffres par tranche de chiffres
+        long low = 1;
+        for (int digits = 1; digits <= MAX_DIGITS && low < number; digits++) {
+            long high = low > Long.MAX_VALUE / 10 ? number : Math.min(number, low * 10);
+            bytes = Math.addExact(bytes, Math.multiplyExact(digits, rules.count(0, low, high)));
+            low = high;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return La taille en octets des lignes des nombres [from, to)
+     */
+    public long sizeOf(long from, long to) {
+        FizzBuzz.checkRange(from, to);
+        return offsetOf(to) - offsetOf(from);
+    }
+}
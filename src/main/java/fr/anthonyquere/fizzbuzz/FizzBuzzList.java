@@ -0,0 +1,35 @@
+package fr.anthonyquere.fizzbuzz;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Vue en lecture seule de la liste FizzBuzz des nombres 1 à size.
+ * Aucun élément n'est stocké : {@link #get(int)} calcule l'élément demandé en temps constant.
+ */
+class FizzBuzzList extends AbstractList<String> implements RandomAccess {
+
+    private final FizzBuzzRules rules;
+    private final int size;
+
+    FizzBuzzList(FizzBuzzRules rules, int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size must not be negative, got " + size);
+        }
+        this.rules = rules;
+        this.size = size;
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return rules.format(index + 1L);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,127 @@
+package fr.anthonyquere.fizzbuzz;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Test de charge du {@link FizzBuzzServer} : des clients concurrents, chacun sur un thread virtuel,
+ * enchaînent les requêtes pendant une durée donnée, puis on affiche le débit et le 99e centile de latence.
+ */
+public class FizzBuzzLoadTest {
+
+    /**
+     * Résultat d'un test de charge.
+     */
+    public record Report(long requests, long errors, double requestsPerSecond, long p50Micros, long p99Micros) {
+        @Override
+        public String toString() {
+            return String.format("%d requests, %d errors, %.0f req/s, p50 %d us, p99 %d us",
+                    requests, errors, requestsPerSecond, p50Micros, p99Micros);
+        }
+    }
+
+    /**
+     * @param uri L'adresse appelée par chaque client
+     * @param concurrency Le nombre de clients (et donc de connexions) simultanés
+     * @param duration La durée pendant laquelle chaque client enchaîne les requêtes
+     */
+    public static Report run(URI uri, int concurrency, Duration duration) throws Exception {
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(clients)
+                     .connectTimeout(Duration.ofSeconds(30))
+                     .build()) {
+            HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+            long deadline = System.nanoTime() + duration.toNanos();
+            long start = System.nanoTime();
+
+            List<Future<long[]>> results = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                results.add(clients.submit(() -> runClient(http, request, deadline)));
+            }
+
+            // Chaque client renvoie ses latences en nanosecondes, -1 pour une erreur
+            List<long[]> clientLatencies = new ArrayList<>(concurrency);
+            int requests = 0;
+            for (Future<long[]> result : results) {
+                clientLatencies.add(result.get());
+                requests += clientLatencies.getLast().length;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long[] latencies = new long[requests];
+            int offset = 0;
+            for (long[] client : clientLatencies) {
+                System.arraycopy(client, 0, latencies, offset, client.length);
+                offset += client.length;
+            }
+            Arrays.sort(latencies);
+            int errors = 0;
+            while (errors < latencies.length && latencies[errors] < 0) {
+                errors++;
+            }
+            long[] succeeded = Arrays.copyOfRange(latencies, errors, latencies.length);
+            return new Report(requests, errors, requests / seconds,
+                    percentile(succeeded, 0.50) / 1_000, percentile(succeeded, 0.99) / 1_000);
+        }
+    }
+
+    private static long[] runClient(HttpClient http, HttpRequest request, long deadline) {
+        long[] latencies = new long[64];
+        int count = 0;
+        do {
+            long start = System.nanoTime();
+            long latency;
+            try {
+                HttpResponse<InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream body = response.body()) {
+                    body.transferTo(OutputStream.nullOutputStream());
+                }
+                latency = response.statusCode() == 200 ? System.nanoTime() - start : -1;
+            } catch (Exception e) {
+                latency = -1;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        } while (System.nanoTime() < deadline);
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static long percentile(long[] sorted, double rank) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(rank * sorted.length) - 1)];
+    }
+
+    /**
+     * Usage : FizzBuzzLoadTest [connections] [seconds] [to]
+     * Démarre un serveur local et le charge avec 10 000 connexions simultanées par défaut.
+     * Client et serveur partagent le processus : il faut plus de 2 descripteurs de fichier par connexion (ulimit -n).
+     */
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long to = args.length > 2 ? Long.parseLong(args[2]) : 101;
+
+        try (FizzBuzzServer server = new FizzBuzzServer(0)) {
+            URI uri = URI.create("http://localhost:" + server.port() + FizzBuzzServer.PATH + "?from=1&to=" + to);
+            System.out.println("Load testing " + uri + " with " + concurrency + " connections for " + seconds + "s");
+            System.out.println(run(uri, concurrency, Duration.ofSeconds(seconds)));
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package fr.anthonyquere.fizzbuzz;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Un jeu de règles FizzBuzz (3 → Fizz, 5 → Buzz, 7 → Bazz...), compilé une seule fois.
+ * Quand le PPCM des diviseurs est assez petit, les règles deviennent une roue : pour chaque reste modulo le PPCM,
+ * le masque des règles vérifiées. Sinon, chaque règle garde son propre reste et les masques sont combinés.
+ * Dans les deux cas le parcours séquentiel ({@link Cursor}) ne fait aucune division.
+ */
+public final class FizzBuzzRules {
+
+    /**
+     * Une règle : les multiples de {@code divisor} affichent {@code word}.
+     */
+    public record Rule(long divisor, String word) {
+        public Rule {
+            if (divisor < 1) {
+                throw new IllegalArgumentException("Divisor must be positive, got " + divisor);
+            }
+            if (word == null || word.isEmpty()) {
+                throw new IllegalArgumentException("Word must not be empty");
+            }
+        }
+    }
+
+    public static final FizzBuzzRules DEFAULT = of(new Rule(3, "Fizz"), new Rule(5, "Buzz"));
+
+    // Au-delà, la table des mots combinés (2^n entrées) devient trop grosse
+    static final int MAX_RULES = 12;
+    static final int MAX_WHEEL_SIZE = 1 << 16;
+
+    private final long[] divisors;
+    // PPCM des diviseurs de chaque sous-ensemble de règles, NO_MULTIPLE s'il dépasse Long.MAX_VALUE
+    private final long[] lcms;
+    // Mot affiché pour chaque masque de règles vérifiées, null pour le masque 0 (on affiche le nombre)
+    private final String[] words;
+    private final byte[][] wordBytes;
+    private final int maxWordLength;
+    // Masque par reste modulo period, null si le PPCM dépasse MAX_WHEEL_SIZE
+    private final char[] wheel;
+    private final int period;
+
+    private FizzBuzzRules(List<Rule> rules) {
+        if (rules.isEmpty() || rules.size() > MAX_RULES) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_RULES + " rules are supported, got " + rules.size());
+        }
+        divisors = rules.stream().mapToLong(Rule::divisor).toArray();
+        lcms = subsetLcms(divisors);
+
+        words = new String[1 << rules.size()];
+        wordBytes = new byte[words.length][];
+        int longest = 0;
+        for (int mask = 1; mask < words.length; mask++) {
+            StringBuilder word = new StringBuilder();
+            for (int rule = 0; rule < rules.size(); rule++) {
+                if ((mask & (1 << rule)) != 0) {
+                    word.append(rules.get(rule).word());
+                }
+            }
+            words[mask] = word.toString();
+            wordBytes[mask] = words[mask].getBytes(StandardCharsets.UTF_8);
+            longest = Math.max(longest, wordBytes[mask].length);
+        }
+        maxWordLength = longest;
+
+        long lcm = wheelPeriod(divisors);
+        if (lcm > 0) {
+            period = (int) lcm;
+            wheel = new char[period];
+            for (int rule = 0; rule < divisors.length; rule++) {
+                for (int residue = 0; residue < period; residue += (int) divisors[rule]) {
+                    wheel[residue] |= (char) (1 << rule);
+                }
+            }
+        } else {
+            period = 0;
+            wheel = null;
+        }
+    }
+
+    /**
+     * @param rules Les règles, dans l'ordre où leurs mots sont concaténés
+     * @return Le jeu de règles compilé
+     */
+    public static FizzBuzzRules of(Rule... rules) {
+        return new FizzBuzzRules(List.of(rules));
+    }
+
+    // PPCM des diviseurs, ou 0 s'il dépasse MAX_WHEEL_SIZE
+    private static long wheelPeriod(long[] divisors) {
+        long lcm = 1;
+        for (long divisor : divisors) {
+            if (divisor > MAX_WHEEL_SIZE) {
+                return 0;
+            }
+            lcm = lcm / gcd(lcm, divisor) * divisor;
+            if (lcm > MAX_WHEEL_SIZE) {
+                return 0;
+            }
+        }
+        return lcm;
+    }
+
+    private static final long NO_MULTIPLE = -1;
+
+    private static long[] subsetLcms(long[] divisors) {
+        long[] lcms = new long[1 << divisors.length];
+        lcms[0] = 1;
+        for (int subset = 1; subset < lcms.length; subset++) {
+            int rule = Integer.numberOfTrailingZeros(subset);
+            long rest = lcms[subset & (subset - 1)];
+            if (rest == NO_MULTIPLE) {
+                lcms[subset] = NO_MULTIPLE;
+                continue;
+            }
+            long divisor = divisors[rule];
+            long factor = rest / gcd(rest, divisor);
+            lcms[subset] = factor > Long.MAX_VALUE / divisor ? NO_MULTIPLE : factor * divisor;
+        }
+        return lcms;
+    }
+
+    static long gcd(long a, long b) {
+        while (b != 0) {
+            long r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    }
+
+    /**
+     * @return Le masque des règles vérifiées par ce nombre (bit i pour la règle i), 0 si aucune
+     */
+    public int maskOf(long number) {
+        if (wheel != null) {
+            return wheel[(int) Math.floorMod(number, (long) period)];
+        }
+        int mask = 0;
+        for (int rule = 0; rule < divisors.length; rule++) {
+            if (number % divisors[rule] == 0) {
+                mask |= 1 << rule;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @return L'élément FizzBuzz de ce nombre selon ces règles
+     */
+    public String format(long number) {
+        int mask = maskOf(number);
+        return mask == 0 ? String.valueOf(number) : words[mask];
+    }
+
+    /**
+     * Compte en temps constant (par inclusion-exclusion sur les règles) les nombres de [from, to)
+     * dont le masque est exactement {@code mask} : pour le masque 0, les nombres affichés tels quels.
+     *
+     * @param mask Le masque des règles vérifiées
+     * @param from Le premier nombre (inclus), au moins 1
+     * @param to Le dernier nombre (exclu)
+     */
+    public long count(int mask, long from, long to) {
+        FizzBuzz.checkRange(from, to);
+        if (mask < 0 || mask >= lcms.length) {
+            throw new IllegalArgumentException("Invalid rule mask: " + mask);
+        }
+        // Nombres vérifiant au moins les règles de mask, moins ceux qui vérifient aussi d'autres règles
+        int others = (lcms.length - 1) & ~mask;
+        long count = 0;
+        for (int extra = others; ; extra = (extra - 1) & others) {
+            long multiples = multiples(lcms[mask | extra], from, to);
+            count += Integer.bitCount(extra) % 2 == 0 ? multiples : -multiples;
+            if (extra == 0) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param word Un élément non numérique produit par ces règles ("Fizz", "FizzBuzz"...)
+     * @return Le nombre de fois où il apparaît pour les nombres de [from, to)
+     */
+    public long count(String word, long from, long to) {
+        for (int mask = 1; mask < words.length; mask++) {
+            if (words[mask].equals(word)) {
+                return count(mask, from, to);
+            }
+        }
+        throw new IllegalArgumentException("Not produced by these rules: " + word);
+    }
+
+    private static long multiples(long divisor, long from, long to) {
+        if (divisor == NO_MULTIPLE) {
+            return 0;
+        }
+        return (to - 1) / divisor - (from - 1) / divisor;
+    }
+
+    /**
+     * @return Le mot affiché pour ce masque, null pour le masque 0
+     */
+    public String word(int mask) {
+        return words[mask];
+    }
+
+    byte[] wordBytes(int mask) {
+        return wordBytes[mask];
+    }
+
+    public int ruleCount() {
+        return divisors.length;
+    }
+
+    public long divisor(int rule) {
+        return divisors[rule];
+    }
+
+    /**
+     * @return La longueur en octets du plus long mot combiné
+     */
+    public int maxWordLength() {
+        return maxWordLength;
+    }
+
+    /**
+     * @return La période de la roue, 0 si les règles sont combinées par masque
+     */
+    public int wheelPeriod() {
+        return period;
+    }
+
+    /**
+     * @param from Le premier nombre parcouru, au moins 1
+     * @return Un curseur séquentiel qui donne les masques de from, from + 1, ...
+     */
+    public Cursor cursor(long from) {
+        return new Cursor(from);
+    }
+
+    /**
+     * Parcours séquentiel des masques : une lecture de table (ou un compteur par règle) et un incrément par nombre.
+     */
+    public final class Cursor {
+        private int position;
+        private final long[] residues;
+
+        private Cursor(long from) {
+            residues = wheel != null ? null : new long[divisors.length];
+            seek(from);
+        }
+
+        /**
+         * Repositionne le curseur, sans allocation.
+         */
+        public void seek(long from) {
+            if (wheel != null) {
+                position = (int) Math.floorMod(from, (long) period);
+            } else {
+                for (int rule = 0; rule < divisors.length; rule++) {
+                    residues[rule] = Math.floorMod(from, divisors[rule]);
+                }
+            }
+        }
+
+        /**
+         * @return Le masque du nombre courant, puis avance au nombre suivant
+         */
+        public int next() {
+            if (wheel != null) {
+                int mask = wheel[position];
+                if (++position == period) {
+                    position = 0;
+                }
+                return mask;
+            }
+            int mask = 0;
+            for (int rule = 0; rule < residues.length; rule++) {
+                if (residues[rule] == 0) {
+                    mask |= 1 << rule;
+                }
+                if (++residues[rule] == divisors[rule]) {
+                    residues[rule] = 0;
+                }
+            }
+            return mask;
+        }
+    }
+}
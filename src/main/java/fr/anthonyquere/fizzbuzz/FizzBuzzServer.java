@@ -0,0 +1,131 @@
+package fr.anthonyquere.fizzbuzz;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Petit serveur HTTP qui sert des intervalles FizzBuzz : GET /fizzbuzz?from=1&to=101.
+ * Chaque requête est traitée sur son propre thread virtuel et la réponse est envoyée en chunks
+ * au fil de l'encodage : un tampon de taille fixe par requête, et l'écriture bloque (sans coûter de thread
+ * système) tant que le client ne lit pas, ce qui borne la mémoire quelle que soit la taille de l'intervalle.
+ */
+public class FizzBuzzServer implements AutoCloseable {
+
+    public static final String PATH = "/fizzbuzz";
+
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int BACKLOG = 1 << 14;
+
+    private final FizzBuzzRules rules;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Démarre le serveur.
+     *
+     * @param port Le port d'écoute, 0 pour un port libre
+     */
+    public FizzBuzzServer(int port) throws IOException {
+        this(FizzBuzzRules.DEFAULT, new InetSocketAddress(port));
+    }
+
+    public FizzBuzzServer(FizzBuzzRules rules, InetSocketAddress address) throws IOException {
+        this.rules = rules;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(address, BACKLOG);
+        server.createContext(PATH, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @return Le port sur lequel le serveur écoute
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Only GET is supported");
+                return;
+            }
+
+            long from;
+            long to;
+            try {
+                Map<String, String> parameters = parameters(exchange.getRequestURI());
+                from = Long.parseLong(parameters.getOrDefault("from", "1"));
+                to = Long.parseLong(parameters.get("to"));
+                FizzBuzz.checkRange(from, to);
+            } catch (NumberFormatException e) {
+                sendError(exchange, 400, "from and to must be numbers");
+                return;
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+
+            // Longueur 0 : réponse en chunks, envoyée au fil de l'eau
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                byte[] buffer = new byte[CHUNK_SIZE];
+                FizzBuzzEncoder encoder = new FizzBuzzEncoder(rules, from);
+                while (encoder.next() < to) {
+                    body.write(buffer, 0, encoder.encode(buffer, 0, to));
+                }
+            }
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> parameters(URI uri) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                parameters.put(pair.substring(0, separator), pair.substring(separator + 1));
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Usage : FizzBuzzServer [port]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        FizzBuzzServer server = new FizzBuzzServer(port);
+        System.out.println("FizzBuzz server listening on http://localhost:" + server.port() + PATH);
+    }
+}
@@ -0,0 +1,81 @@
+package fr.anthonyquere.fizzbuzz;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator paresseux sur l'intervalle de nombres [from, to).
+ * Chaque élément est calculé à la demande : la mémoire utilisée ne dépend pas de la taille de l'intervalle.
+ */
+class FizzBuzzSpliterator implements Spliterator<String> {
+
+    // En dessous de ce nombre d'éléments, on ne découpe plus pour le parallélisme
+    private static final long MIN_SPLIT_SIZE = 1 << 12;
+
+    private final FizzBuzzRules rules;
+    private long next;
+    private final long end;
+    // Créé au premier parcours, pour qu'un découpage préalable ne coûte rien
+    private FizzBuzzRules.Cursor cursor;
+
+    FizzBuzzSpliterator(FizzBuzzRules rules, long from, long to) {
+        this.rules = rules;
+        this.next = from;
+        this.end = to;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (next >= end) {
+            return false;
+        }
+        if (cursor == null) {
+            cursor = rules.cursor(next);
+        }
+        action.accept(element(next++, cursor.next()));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super String> action) {
+        long current = next;
+        long last = end;
+        if (current >= last) {
+            return;
+        }
+        if (cursor == null) {
+            cursor = rules.cursor(current);
+        }
+        next = last;
+        for (; current < last; current++) {
+            action.accept(element(current, cursor.next()));
+        }
+    }
+
+    private String element(long number, int mask) {
+        return mask == 0 ? String.valueOf(number) : rules.word(mask);
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        long size = end - next;
+        if (size < MIN_SPLIT_SIZE) {
+            return null;
+        }
+        long middle = next + size / 2;
+        Spliterator<String> prefix = new FizzBuzzSpliterator(rules, next, middle);
+        next = middle;
+        cursor = null;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - next;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+    }
+}
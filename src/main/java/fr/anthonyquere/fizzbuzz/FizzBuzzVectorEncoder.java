@@ -0,0 +1,224 @@
+package fr.anthonyquere.fizzbuzz;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Formate de grands intervalles FizzBuzz avec l'API Vector.
+ * Les règles se répètent avec une période P (multiple de la roue et de 100) : on formate une fois un gabarit
+ * de P lignes, on le copie, puis on ajoute P à tous ses nombres d'un coup en additionnant un vecteur
+ * de chiffres de P sur toutes les lignes, les retenues étant propagées après coup.
+ * Les gabarits sont refaits à chaque changement de nombre de chiffres.
+ * Sans le module jdk.incubator.vector, ou si la roue est trop grande, tout passe par {@link FizzBuzzEncoder}.
+ * La sortie est identique octet pour octet à celle de {@link FizzBuzzEncoder}.
+ */
+public class FizzBuzzVectorEncoder {
+
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    // Au-delà, le gabarit ne tient plus dans les caches
+    private static final int MAX_TEMPLATE_LINES = 1 << 14;
+
+    private final FizzBuzzRules rules;
+    // Nombre de lignes d'un gabarit, 0 si on reste sur le chemin scalaire
+    private final int period;
+    private final byte[] periodDigits;
+
+    public FizzBuzzVectorEncoder() {
+        this(FizzBuzzRules.DEFAULT);
+    }
+
+    public FizzBuzzVectorEncoder(FizzBuzzRules rules) {
+        this.rules = rules;
+        long templateLines = rules.wheelPeriod() == 0 ? 0
+                : rules.wheelPeriod() / FizzBuzzRules.gcd(rules.wheelPeriod(), 100) * 100;
+        this.period = AVAILABLE && templateLines <= MAX_TEMPLATE_LINES ? (int) templateLines : 0;
+        this.periodDigits = Long.toString(period).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return true si le module jdk.incubator.vector est chargé (option --add-modules jdk.incubator.vector)
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * @return true si ces règles sont formatées avec l'API Vector, false si elles passent par le chemin scalaire
+     */
+    public boolean isVectorized() {
+        return period > 0;
+    }
+
+    /**
+     * Formate les lignes des nombres [from, to) au début du tampon,
+     * qui doit pouvoir contenir {@link FizzBuzzIndex#sizeOf(long, long)} octets.
+     *
+     * @return Le nombre d'octets écrits
+     */
+    public int encode(long from, long to, byte[] buffer) {
+        FizzBuzzEncoder scalar = new FizzBuzzEncoder(rules, from);
+        if (period == 0) {
+            return checkedEncode(scalar, buffer, 0, to);
+        }
+
+        int position = 0;
+        long bandStart = from;
+        while (bandStart < to) {
+            // Tous les nombres d'une tranche ont le même nombre de chiffres
+            long bandEnd = Math.min(to, nextPowerOfTen(bandStart));
+            position = encodeBand(scalar, bandStart, bandEnd, buffer, position);
+            bandStart = bandEnd;
+        }
+        return position;
+    }
+
+    private int encodeBand(FizzBuzzEncoder scalar, long from, long to, byte[] buffer, int position) {
+        if (to - from < 2L * period) {
+            scalar.seek(from);
+            return checkedEncode(scalar, buffer, position, to);
+        }
+
+        // Gabarit des P premières lignes, et vecteur des chiffres de P alignés sous chaque nombre
+        scalar.seek(from);
+        byte[] template = new byte[period * (Math.max(FizzBuzzWriter.digitCount(to - 1), rules.maxWordLength()) + 1)];
+        int templateLength = checkedEncode(scalar, template, 0, from + period);
+        template = Arrays.copyOf(template, templateLength);
+        byte[] delta = delta(template, from);
+
+        long base = from;
+        while (true) {
+            System.arraycopy(template, 0, buffer, position, templateLength);
+            position += templateLength;
+            base += period;
+            if (base + period > to) {
+                break;
+            }
+            Kernel.addDigits(template, delta);
+        }
+
+        // Fin de tranche plus courte qu'un gabarit
+        scalar.seek(base);
+        return checkedEncode(scalar, buffer, position, to);
+    }
+
+    // Les chiffres de P sous les derniers chiffres de chaque ligne numérique du gabarit
+    private byte[] delta(byte[] template, long from) {
+        byte[] delta = new byte[template.length];
+        FizzBuzzRules.Cursor cursor = rules.cursor(from);
+        int lineStart = 0;
+        for (int line = 0; line < period; line++) {
+            int lineEnd = lineStart;
+            while (template[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            if (cursor.next() == 0) {
+                for (int i = 0; i < periodDigits.length; i++) {
+                    delta[lineEnd - periodDigits.length + i] = (byte) (periodDigits[i] - '0');
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return delta;
+    }
+
+    private static int checkedEncode(FizzBuzzEncoder encoder, byte[] buffer, int offset, long to) {
+        int position = encoder.encode(buffer, offset, to);
+        if (encoder.next() < to) {
+            throw new IndexOutOfBoundsException("Buffer of " + buffer.length + " bytes is too small");
+        }
+        return position;
+    }
+
+    private static long nextPowerOfTen(long number) {
+        long power = 10;
+        while (power <= number) {
+            if (power > Long.MAX_VALUE / 10) {
+                return Long.MAX_VALUE;
+            }
+            power *= 10;
+        }
+        return power;
+    }
+
+    // Séparé pour que les classes du module incubator ne soient chargées que si le module est présent
+    private static final class Kernel {
+
+        private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+        private static final byte NINE = '9';
+
+        // template += delta chiffre à chiffre, puis propagation des retenues vers la gauche
+        static void addDigits(byte[] template, byte[] delta) {
+            int i = 0;
+            int bound = SPECIES.loopBound(template.length);
+            for (; i < bound; i += SPECIES.length()) {
+                ByteVector digits = ByteVector.fromArray(SPECIES, delta, i);
+                ByteVector sum = ByteVector.fromArray(SPECIES, template, i).add(digits);
+                sum.intoArray(template, i);
+                // Les lettres des mots sont aussi au-dessus de '9' : seules les positions modifiées comptent
+                VectorMask<Byte> overflow = sum.compare(VectorOperators.GT, NINE)
+                        .and(digits.compare(VectorOperators.NE, (byte) 0));
+                if (overflow.anyTrue()) {
+                    long lanes = overflow.toLong();
+                    while (lanes != 0) {
+                        carry(template, i + Long.numberOfTrailingZeros(lanes));
+                        lanes &= lanes - 1;
+                    }
+                }
+            }
+            for (; i < template.length; i++) {
+                if (delta[i] != 0) {
+                    template[i] += delta[i];
+                    carry(template, i);
+                }
+            }
+        }
+
+        private static void carry(byte[] template, int position) {
+            while (template[position] > NINE) {
+                template[position] -= 10;
+                template[--position]++;
+            }
+        }
+    }
+
+    /**
+     * Petit banc d'essai : compare le débit du chemin scalaire et du chemin vectoriel.
+     * Usage : java --add-modules jdk.incubator.vector ... FizzBuzzVectorEncoder [count]
+     */
+    public static void main(String[] args) {
+        long count = args.length > 0 ? Long.parseLong(args[0]) : 200_000_000L;
+        int block = FizzBuzzWriter.DEFAULT_BLOCK_SIZE;
+        byte[] buffer = new byte[block * 21];
+        FizzBuzzVectorEncoder vector = new FizzBuzzVectorEncoder();
+        System.out.println("Vector API available: " + isAvailable() + ", vectorized: " + vector.isVectorized());
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            long bytes = 0;
+            FizzBuzzEncoder scalar = new FizzBuzzEncoder(1);
+            for (long from = 1; from <= count; from += block) {
+                scalar.seek(from);
+                bytes += scalar.encode(buffer, 0, Math.min(count + 1, from + block));
+            }
+            report("scalar", bytes, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            bytes = 0;
+            for (long from = 1; from <= count; from += block) {
+                bytes += vector.encode(from, Math.min(count + 1, from + block), buffer);
+            }
+            report("vector", bytes, System.nanoTime() - start);
+        }
+    }
+
+    private static void report(String engine, long bytes, long nanos) {
+        System.out.printf("%s: %d bytes in %d ms (%.0f MB/s)%n", engine, bytes, nanos / 1_000_000,
+                bytes / 1e6 / (nanos / 1e9));
+    }
+}
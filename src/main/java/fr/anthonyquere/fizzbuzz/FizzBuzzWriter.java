@@ -0,0 +1,181 @@
+package fr.anthonyquere.fizzbuzz;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Écrit de grands intervalles FizzBuzz en masse : l'intervalle est découpé en blocs de taille fixe,
+ * chaque bloc est formaté dans un tampon d'octets par un worker fork-join,
+ * puis les blocs sont écrits dans l'ordre sur le canal de sortie.
+ * Le nombre de blocs en cours est borné, la mémoire utilisée l'est donc aussi.
+ */
+public class FizzBuzzWriter {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+
+    private static final long MAX_MAPPING_SIZE = Integer.MAX_VALUE;
+
+    private final FizzBuzzRules rules;
+    private final FizzBuzzVectorEncoder vectorEncoder;
+    private final int blockSize;
+    private final int maxBlocksInFlight;
+    private final ForkJoinPool pool;
+
+    public FizzBuzzWriter() {
+        this(FizzBuzzRules.DEFAULT);
+    }
+
+    public FizzBuzzWriter(FizzBuzzRules rules) {
+        this(rules, DEFAULT_BLOCK_SIZE, 2 * ForkJoinPool.getCommonPoolParallelism(), ForkJoinPool.commonPool());
+    }
+
+    public FizzBuzzWriter(int blockSize, int maxBlocksInFlight, ForkJoinPool pool) {
+        this(FizzBuzzRules.DEFAULT, blockSize, maxBlocksInFlight, pool);
+    }
+
+    /**
+     * @param rules Les règles à appliquer
+     * @param blockSize Le nombre d'éléments formatés par bloc
+     * @param maxBlocksInFlight Le nombre maximal de blocs formatés ou en attente d'écriture
+     * @param pool Le pool qui formate les blocs
+     */
+    public FizzBuzzWriter(FizzBuzzRules rules, int blockSize, int maxBlocksInFlight, ForkJoinPool pool) {
+        if (blockSize < 1 || maxBlocksInFlight < 1) {
+            throw new IllegalArgumentException("Block size and blocks in flight must be positive");
+        }
+        this.rules = rules;
+        this.vectorEncoder = new FizzBuzzVectorEncoder(rules);
+        this.blockSize = blockSize;
+        this.maxBlocksInFlight = maxBlocksInFlight;
+        this.pool = pool;
+    }
+
+    /**
+     * Écrit les éléments des nombres [from, to), un par ligne, sur le canal.
+     *
+     * @param from Le premier nombre (inclus), au moins 1
+     * @param to Le dernier nombre (exclu)
+     * @param channel Le canal de sortie (sortie standard, fichier...)
+     * @return Le nombre d'octets écrits
+     */
+    public long write(long from, long to, WritableByteChannel channel) throws IOException {
+        FizzBuzz.checkRange(from, to);
+
+        // Un tampon doit pouvoir contenir un bloc complet de lignes les plus longues de l'intervalle
+        int bufferSize = Math.toIntExact(blockSize * (long) maxLineLength(to - 1));
+        Deque<byte[]> freeBuffers = new ArrayDeque<>();
+        Deque<ForkJoinTask<ByteBuffer>> inFlight = new ArrayDeque<>();
+
+        long next = from;
+        long written = 0;
+        try {
+            while (next < to || !inFlight.isEmpty()) {
+                // Remplir la fenêtre de blocs en cours
+                while (next < to && inFlight.size() < maxBlocksInFlight) {
+                    long start = next;
+                    long end = Math.min(to, start + blockSize);
+                    byte[] buffer = freeBuffers.isEmpty() ? new byte[bufferSize] : freeBuffers.pop();
+                    inFlight.add(pool.submit(() -> ByteBuffer.wrap(buffer, 0, encode(start, end, buffer))));
+                    next = end;
+                }
+
+                // Écrire le plus ancien bloc, l'ordre de sortie est celui de l'intervalle
+                ByteBuffer block = inFlight.poll().join();
+                while (block.hasRemaining()) {
+                    written += channel.write(block);
+                }
+                freeBuffers.push(block.array());
+            }
+        } finally {
+            inFlight.forEach(task -> task.cancel(false));
+        }
+        return written;
+    }
+
+    /**
+     * Écrit les lignes des nombres [from, to) directement à leur place dans un fichier qui contient
+     * (ou contiendra) la sortie complète depuis 1. La position est donnée par {@link FizzBuzzIndex} :
+     * des workers indépendants peuvent remplir chacun leur tranche du même fichier, sans coordination.
+     * Le fichier doit déjà avoir sa taille finale.
+     *
+     * @param file Un fichier ouvert en lecture et écriture
+     * @param from Le premier nombre (inclus), au moins 1
+     * @param to Le dernier nombre (exclu)
+     */
+    public void writeMapped(FileChannel file, long from, long to) throws IOException {
+        FizzBuzzIndex index = new FizzBuzzIndex(rules);
+        long position = index.offsetOf(from);
+        long end = position + index.sizeOf(from, to);
+        FizzBuzzEncoder encoder = new FizzBuzzEncoder(rules, from);
+
+        // Une projection mémoire est limitée à 2 Go : on projette le fichier par morceaux
+        while (encoder.next() < to) {
+            long size = Math.min(MAX_MAPPING_SIZE, end - position);
+            MappedByteBuffer buffer = file.map(FileChannel.MapMode.READ_WRITE, position, size);
+            encoder.encode(buffer, to);
+            if (buffer.position() == 0) {
+                throw new IllegalStateException("Line of " + encoder.next() + " does not fit at offset " + position);
+            }
+            position += buffer.position();
+        }
+    }
+
+    /**
+     * Écrit la sortie des nombres [1, to) dans un fichier dimensionné à l'avance,
+     * chaque bloc étant projeté en mémoire et rempli en parallèle par un worker du pool.
+     */
+    public void writeFile(Path path, long to) throws IOException {
+        long size = new FizzBuzzIndex(rules).sizeOf(1, to);
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Agrandir le fichier à sa taille finale avant que les workers ne le projettent
+            if (size > 0) {
+                file.write(ByteBuffer.wrap(new byte[1]), size - 1);
+            }
+
+            List<ForkJoinTask<Void>> slices = new ArrayList<>();
+            for (long start = 1; start < to; start += blockSize) {
+                long sliceStart = start;
+                long sliceEnd = Math.min(to, start + blockSize);
+                slices.add(pool.submit(() -> {
+                    writeMapped(file, sliceStart, sliceEnd);
+                    return null;
+                }));
+            }
+            for (ForkJoinTask<Void> slice : slices) {
+                slice.join();
+            }
+        }
+    }
+
+    private int encode(long from, long to, byte[] buffer) {
+        if (vectorEncoder.isVectorized()) {
+            return vectorEncoder.encode(from, to, buffer);
+        }
+        return new FizzBuzzEncoder(rules, from).encode(buffer, 0, to);
+    }
+
+    private int maxLineLength(long number) {
+        return Math.max(rules.maxWordLength(), digitCount(number)) + 1;
+    }
+
+    static int digitCount(long number) {
+        int digits = 1;
+        while (number >= 10) {
+            number /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,54 @@
+package fr.anthonyquere.teashop;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A coarse clock for hot loops: a single daemon ticker thread reads the source clock at a fixed period
+ * and readers only pay a volatile read. The time read can lag behind the source by up to one period.
+ */
+public class CachedClock implements TeaClock, AutoCloseable {
+    private final TeaClock source;
+    private final long periodNanos;
+    private final Thread ticker;
+    private volatile long currentTimeSeconds;
+    private volatile boolean closed;
+
+    /**
+     * Uses a monotonic source ticking every 100 ms.
+     */
+    public CachedClock() {
+        this(TeaClock.monotonic(), Duration.ofMillis(100));
+    }
+
+    public CachedClock(TeaClock source, Duration period) {
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Tick period must be positive");
+        }
+        this.source = source;
+        this.periodNanos = period.toNanos();
+        this.currentTimeSeconds = source.currentTimeSeconds();
+        this.ticker = Thread.ofPlatform().daemon().name("tea-clock-ticker").start(this::tick);
+    }
+
+    private void tick() {
+        while (!closed) {
+            LockSupport.parkNanos(periodNanos);
+            currentTimeSeconds = source.currentTimeSeconds();
+        }
+    }
+
+    @Override
+    public long currentTimeSeconds() {
+        return currentTimeSeconds;
+    }
+
+    /**
+     * Stops the ticker thread: the time no longer changes afterwards.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(ticker);
+    }
+}
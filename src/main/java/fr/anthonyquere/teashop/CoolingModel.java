@@ -0,0 +1,57 @@
+package fr.anthonyquere.teashop;
+
+/**
+ * How the water of a cup cools down (or warms up) over time, following Newton's law of cooling:
+ * {@code T(t) = ambient + (T0 - ambient) * exp(-rate * t)}.
+ * The temperature is computed from the initial state only when it is read, so idle cups cost nothing.
+ *
+ * @param ambientCelsius the temperature of the room, which the water tends to
+ * @param ratePerSecond the cooling constant, 0 for water that keeps its temperature
+ */
+public record CoolingModel(double ambientCelsius, double ratePerSecond) {
+
+    /**
+     * Water keeps the temperature it was poured at.
+     */
+    public static final CoolingModel NONE = new CoolingModel(20, 0);
+
+    public CoolingModel {
+        if (!(ratePerSecond >= 0) || Double.isInfinite(ratePerSecond)) {
+            throw new IllegalArgumentException("Cooling rate must be a finite non-negative number");
+        }
+    }
+
+    /**
+     * @param ambientCelsius the temperature of the room
+     * @param ratePerSecond the cooling constant, e.g. about 0.001 for a mug of tea
+     */
+    public static CoolingModel newton(double ambientCelsius, double ratePerSecond) {
+        return new CoolingModel(ambientCelsius, ratePerSecond);
+    }
+
+    /**
+     * @return the temperature of water poured at {@code initialCelsius}, {@code elapsedSeconds} later
+     */
+    public double temperatureAt(double initialCelsius, long elapsedSeconds) {
+        if (ratePerSecond == 0 || elapsedSeconds <= 0) {
+            return initialCelsius;
+        }
+        return ambientCelsius + (initialCelsius - ambientCelsius) * Math.exp(-ratePerSecond * elapsedSeconds);
+    }
+
+    /**
+     * @return the seconds it takes water poured at {@code initialCelsius} to reach {@code targetCelsius},
+     *         0 if it is already there, infinity if it never gets there
+     */
+    public double timeToReach(double initialCelsius, double targetCelsius) {
+        if (initialCelsius == targetCelsius) {
+            return 0;
+        }
+        double ratio = (initialCelsius - ambientCelsius) / (targetCelsius - ambientCelsius);
+        // The target must lie between the initial temperature and the ambient one (excluded)
+        if (ratePerSecond == 0 || !(ratio > 1)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Math.log(ratio) / ratePerSecond;
+    }
+}
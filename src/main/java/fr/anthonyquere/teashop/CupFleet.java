@@ -0,0 +1,114 @@
+package fr.anthonyquere.teashop;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * A large number of steeping cups stored as parallel primitive arrays, one slot per cup.
+ * Each cup is reduced to its {@link DrinkWindow}, solved once when the cup is added, so readiness of the whole
+ * fleet is evaluated in one branch-free pass over two arrays, reading the clock once, with the same result
+ * as {@link TeaCup#isReadyToDrink()}: enough steeping time and water within {@link TeaCup#TEMPERATURE_TOLERANCE}
+ * of the ideal temperature, cooling included.
+ * A fleet is not thread-safe while it is being filled; evaluating it from several threads is fine.
+ */
+public class CupFleet {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    // Cups per parallel task, a multiple of 64 so that tasks never share a word of the result
+    static final int PARALLEL_CHUNK = 64 * 1024;
+
+    private int size;
+    // Drink window of each cup; a cup that is never ready has an empty window [MAX_VALUE, MIN_VALUE)
+    private long[] readyFrom;
+    private long[] readyUntil;
+
+    public CupFleet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CupFleet(int initialCapacity) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        readyFrom = new long[initialCapacity];
+        readyUntil = new long[initialCapacity];
+    }
+
+    /**
+     * Adds a copy of the current state of this cup.
+     *
+     * @return the index of the cup in the fleet
+     */
+    public int add(TeaCup cup) {
+        if (size == readyFrom.length) {
+            grow();
+        }
+        store(size, cup);
+        return size++;
+    }
+
+    /**
+     * Replaces the state of a cup with the current state of this one, e.g. after adding water or tea.
+     */
+    public void set(int index, TeaCup cup) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No cup at index " + index);
+        }
+        store(index, cup);
+    }
+
+    private void store(int index, TeaCup cup) {
+        Optional<DrinkWindow> window = cup.getDrinkWindow();
+        readyFrom[index] = window.map(DrinkWindow::fromSeconds).orElse(Long.MAX_VALUE);
+        readyUntil[index] = window.map(DrinkWindow::untilSeconds).orElse(Long.MIN_VALUE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param nowSeconds the current time, in the same unit as {@link TeaCup#getSteepingStartTime()}
+     * @return the indexes of the cups ready to drink at that time
+     */
+    public BitSet evaluate(long nowSeconds) {
+        long[] words = new long[(size + 63) >>> 6];
+        evaluate(nowSeconds, 0, size, words);
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Same as {@link #evaluate(long)}, with the fleet split in chunks evaluated in parallel.
+     */
+    public BitSet evaluateParallel(long nowSeconds) {
+        long[] words = new long[(size + 63) >>> 6];
+        int chunks = (size + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = chunk * PARALLEL_CHUNK;
+            evaluate(nowSeconds, from, Math.min(size, from + PARALLEL_CHUNK), words);
+        });
+        return BitSet.valueOf(words);
+    }
+
+    // from is a multiple of 64: the words of [from, to) belong to this call only
+    private void evaluate(long now, int from, int to, long[] words) {
+        for (int word = from >>> 6; word << 6 < to; word++) {
+            int start = word << 6;
+            int end = Math.min(to, start + 64);
+            long bits = 0;
+            for (int i = start; i < end; i++) {
+                boolean ready = now >= readyFrom[i] & now < readyUntil[i];
+                bits |= (ready ? 1L : 0L) << (i - start);
+            }
+            words[word] = bits;
+        }
+    }
+
+    private void grow() {
+        int capacity = readyFrom.length * 2;
+        readyFrom = Arrays.copyOf(readyFrom, capacity);
+        readyUntil = Arrays.copyOf(readyUntil, capacity);
+    }
+}
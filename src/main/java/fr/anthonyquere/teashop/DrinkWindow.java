@@ -0,0 +1,24 @@
+package fr.anthonyquere.teashop;
+
+/**
+ * The times at which a cup is ready to drink: steeping is done and the water is at the right temperature.
+ *
+ * @param fromSeconds the first second the cup is ready
+ * @param untilSeconds the first second it is no longer ready, {@link Long#MAX_VALUE} if it stays ready
+ */
+public record DrinkWindow(long fromSeconds, long untilSeconds) {
+
+    public DrinkWindow {
+        if (fromSeconds >= untilSeconds) {
+            throw new IllegalArgumentException("Empty drink window [" + fromSeconds + ", " + untilSeconds + ")");
+        }
+    }
+
+    public boolean contains(long timeSeconds) {
+        return timeSeconds >= fromSeconds && timeSeconds < untilSeconds;
+    }
+
+    public boolean isOpenEnded() {
+        return untilSeconds == Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,248 @@
+package fr.anthonyquere.teashop;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Groups orders into kettle batches so that water is reheated as rarely as possible.
+ * Teas whose ideal temperatures are at most 2 × {@link TeaCup#TEMPERATURE_TOLERANCE} apart share one kettle,
+ * heated halfway between them. A free kettle only starts a batch when it is full, preferring a batch at the
+ * temperature it already holds, unless the oldest order has waited {@code maxWaitSeconds}: that order's batch
+ * then leaves at once, with as many compatible orders as fit.
+ * A scheduler is not thread-safe: it is driven by a single thread, like {@link SteepingTimer}.
+ */
+public class KettleScheduler {
+    private static final int MAX_TEMPERATURE = 100;
+    private static final int WINDOW = 2 * TeaCup.TEMPERATURE_TOLERANCE;
+    // Temperature of a kettle that has not boiled anything yet
+    private static final int COLD = Integer.MIN_VALUE;
+
+    private final int cupsPerKettle;
+    private final long maxWaitSeconds;
+    private final long boilSeconds;
+    private final long switchSeconds;
+
+    // Pending orders by ideal temperature, oldest first
+    private final ArrayDeque<Order>[] queues;
+    private int pending;
+    private final int[] kettleTemperatures;
+    private final long[] kettleBusyUntil;
+    private long lastDispatch = Long.MIN_VALUE;
+    private long switches;
+    private long cupsDispatched;
+    private long batchesDispatched;
+
+    /**
+     * A tea waiting for hot water.
+     *
+     * @param arrivalSeconds when the order was taken
+     */
+    public record Order(Tea tea, long arrivalSeconds) {
+        public int temperatureCelsius() {
+            return tea.getIdealTemperatureCelsius();
+        }
+    }
+
+    /**
+     * Orders boiled together in one kettle.
+     *
+     * @param startSeconds when the kettle starts heating
+     * @param readySeconds when the water is ready to be poured
+     * @param switched true if the kettle had to change temperature for this batch
+     */
+    public record Batch(int kettle, int waterTemperatureCelsius, List<Order> orders, long startSeconds,
+                        long readySeconds, boolean switched) {
+    }
+
+    /**
+     * @param kettles the number of kettles
+     * @param cupsPerKettle the number of cups one kettle can serve at once
+     * @param maxWaitSeconds how long an order may wait for a full kettle
+     * @param boilSeconds how long a kettle takes to boil at the temperature it already holds
+     * @param switchSeconds the extra time to reach another temperature, or to heat a cold kettle
+     */
+    public KettleScheduler(int kettles, int cupsPerKettle, long maxWaitSeconds, long boilSeconds, long switchSeconds) {
+        if (kettles < 1 || cupsPerKettle < 1) {
+            throw new IllegalArgumentException("Kettles and cups per kettle must be positive");
+        }
+        if (maxWaitSeconds < 0 || boilSeconds < 0 || switchSeconds < 0) {
+            throw new IllegalArgumentException("Durations must not be negative");
+        }
+        this.cupsPerKettle = cupsPerKettle;
+        this.maxWaitSeconds = maxWaitSeconds;
+        this.boilSeconds = boilSeconds;
+        this.switchSeconds = switchSeconds;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ArrayDeque<Order>[] queues = new ArrayDeque[MAX_TEMPERATURE + 1];
+        this.queues = queues;
+        for (int temperature = 0; temperature <= MAX_TEMPERATURE; temperature++) {
+            queues[temperature] = new ArrayDeque<>();
+        }
+        this.kettleTemperatures = new int[kettles];
+        Arrays.fill(kettleTemperatures, COLD);
+        this.kettleBusyUntil = new long[kettles];
+        Arrays.fill(kettleBusyUntil, Long.MIN_VALUE);
+    }
+
+    /**
+     * Queues an order for the next batches.
+     */
+    public Order submit(Tea tea, long arrivalSeconds) {
+        int temperature = tea.getIdealTemperatureCelsius();
+        if (temperature < 0 || temperature > MAX_TEMPERATURE) {
+            throw new IllegalArgumentException("Water temperature must be between 0 and 100°C");
+        }
+        Order order = new Order(tea, arrivalSeconds);
+        queues[temperature].add(order);
+        pending++;
+        return order;
+    }
+
+    /**
+     * Starts every batch that should leave at this time, on the kettles that are free.
+     *
+     * @return the batches started, in kettle order
+     */
+    public List<Batch> dispatch(long nowSeconds) {
+        lastDispatch = nowSeconds;
+        List<Batch> batches = new ArrayList<>();
+        for (int kettle = 0; kettle < kettleBusyUntil.length && pending > 0; kettle++) {
+            if (kettleBusyUntil[kettle] <= nowSeconds) {
+                Batch batch = nextBatch(kettle, nowSeconds);
+                if (batch == null) {
+                    // Nothing urgent nor full: no other free kettle would start anything either
+                    break;
+                }
+                batches.add(batch);
+            }
+        }
+        return batches;
+    }
+
+    /**
+     * @return the next time {@link #dispatch(long)} may start a batch if no order arrives meanwhile,
+     *         or Long.MAX_VALUE if nothing is pending
+     */
+    public long nextDispatchTime() {
+        Order oldest = oldest(0, MAX_TEMPERATURE);
+        if (oldest == null) {
+            return Long.MAX_VALUE;
+        }
+        // A deadline already passed at the last dispatch is waiting for a kettle, not for time
+        long deadline = oldest.arrivalSeconds() + maxWaitSeconds;
+        long next = deadline > lastDispatch ? deadline : Long.MAX_VALUE;
+        for (long busyUntil : kettleBusyUntil) {
+            if (busyUntil > lastDispatch) {
+                next = Math.min(next, busyUntil);
+            }
+        }
+        return next;
+    }
+
+    public int kettles() {
+        return kettleBusyUntil.length;
+    }
+
+    public int pending() {
+        return pending;
+    }
+
+    /**
+     * @return the number of batches that changed the temperature of their kettle, first heats included
+     */
+    public long switches() {
+        return switches;
+    }
+
+    public long cupsDispatched() {
+        return cupsDispatched;
+    }
+
+    public long batchesDispatched() {
+        return batchesDispatched;
+    }
+
+    private Batch nextBatch(int kettle, long now) {
+        int held = kettleTemperatures[kettle];
+        Order oldest = oldest(0, MAX_TEMPERATURE);
+        boolean urgent = now - oldest.arrivalSeconds() >= maxWaitSeconds;
+
+        // Candidate windows [low, low + WINDOW]: the one of the held temperature first, so it wins ties
+        int bestLow = -1;
+        int bestCount = 0;
+        if (held != COLD) {
+            int low = Math.max(0, held - TeaCup.TEMPERATURE_TOLERANCE);
+            if (!urgent || contains(low, oldest.temperatureCelsius())) {
+                bestLow = low;
+                bestCount = Math.min(cupsPerKettle, count(low));
+            }
+        }
+        for (int low = 0; low <= MAX_TEMPERATURE; low++) {
+            if (queues[low].isEmpty() || (urgent && !contains(low, oldest.temperatureCelsius()))) {
+                continue;
+            }
+            int count = Math.min(cupsPerKettle, count(low));
+            if (count > bestCount) {
+                bestLow = low;
+                bestCount = count;
+            }
+        }
+        if (bestLow < 0 || (!urgent && bestCount < cupsPerKettle)) {
+            return null;
+        }
+
+        // Oldest orders of the window first, so an urgent order is always taken
+        List<Order> orders = new ArrayList<>(bestCount);
+        int coolest = MAX_TEMPERATURE;
+        int hottest = 0;
+        int high = Math.min(MAX_TEMPERATURE, bestLow + WINDOW);
+        while (orders.size() < bestCount) {
+            Order order = oldest(bestLow, high);
+            queues[order.temperatureCelsius()].poll();
+            orders.add(order);
+            coolest = Math.min(coolest, order.temperatureCelsius());
+            hottest = Math.max(hottest, order.temperatureCelsius());
+        }
+        pending -= orders.size();
+
+        boolean switched = held == COLD
+                || hottest - held > TeaCup.TEMPERATURE_TOLERANCE || held - coolest > TeaCup.TEMPERATURE_TOLERANCE;
+        int temperature = switched ? (coolest + hottest) / 2 : held;
+        long ready = now + boilSeconds + (switched ? switchSeconds : 0);
+        kettleTemperatures[kettle] = temperature;
+        kettleBusyUntil[kettle] = ready;
+        if (switched) {
+            switches++;
+        }
+        cupsDispatched += orders.size();
+        batchesDispatched++;
+        return new Batch(kettle, temperature, List.copyOf(orders), now, ready, switched);
+    }
+
+    private static boolean contains(int low, int temperature) {
+        return temperature >= low && temperature <= low + WINDOW;
+    }
+
+    // Pending orders with a temperature in [low, low + WINDOW]
+    private int count(int low) {
+        int count = 0;
+        for (int temperature = low; temperature <= Math.min(MAX_TEMPERATURE, low + WINDOW); temperature++) {
+            count += queues[temperature].size();
+        }
+        return count;
+    }
+
+    // Oldest pending order with a temperature in [low, high], or null if there is none
+    private Order oldest(int low, int high) {
+        Order oldest = null;
+        for (int temperature = low; temperature <= high; temperature++) {
+            Order head = queues[temperature].peek();
+            if (head != null && (oldest == null || head.arrivalSeconds() < oldest.arrivalSeconds())) {
+                oldest = head;
+            }
+        }
+        return oldest;
+    }
+}
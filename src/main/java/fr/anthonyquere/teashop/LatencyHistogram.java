@@ -0,0 +1,111 @@
+package fr.anthonyquere.teashop;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-bucketed histogram of non-negative values, in the spirit of HdrHistogram: each power of two is split
+ * into {@value #SUB_BUCKETS} linear buckets, so any recorded value is known within 12.5%.
+ * Recording is one atomic increment and never allocates; the histogram is safe for concurrent use.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values below SUB_BUCKETS have a bucket each, then SUB_BUCKETS buckets per power of two up to 2^63
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Counts one value; negative values count as 0.
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts.getAndIncrement(bucketOf(value));
+        sum.add(value);
+    }
+
+    /**
+     * @return the counts at this moment; values recorded meanwhile may be partly included
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            copy[bucket] = counts.get(bucket);
+            count += copy[bucket];
+        }
+        return new Snapshot(copy, count, sum.sum());
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // Largest value of the bucket
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long lower = (long) (SUB_BUCKETS | (bucket & (SUB_BUCKETS - 1))) << (exponent - SUB_BUCKET_BITS);
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Counts of a histogram at one moment.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+
+        private Snapshot(long[] counts, long count, long sum) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long sum() {
+            return sum;
+        }
+
+        /**
+         * @param quantile between 0 and 1
+         * @return an upper bound of the value below which this share of values falls, 0 if nothing was recorded
+         */
+        public long valueAt(double quantile) {
+            if (quantile < 0 || quantile > 1) {
+                throw new IllegalArgumentException("Quantile must be between 0 and 1");
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int bucket = 0; bucket < counts.length; bucket++) {
+                seen += counts[bucket];
+                if (seen >= rank) {
+                    return upperBoundOf(bucket);
+                }
+            }
+            return 0;
+        }
+
+        public long max() {
+            for (int bucket = counts.length - 1; bucket >= 0; bucket--) {
+                if (counts[bucket] > 0) {
+                    return upperBoundOf(bucket);
+                }
+            }
+            return 0;
+        }
+    }
+}
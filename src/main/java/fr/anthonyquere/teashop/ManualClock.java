@@ -0,0 +1,28 @@
+package fr.anthonyquere.teashop;
+
+/**
+ * A clock that only moves when told to, for tests and simulations.
+ */
+public class ManualClock implements TeaClock {
+    private volatile long currentTimeSeconds;
+
+    public ManualClock(long startTimeSeconds) {
+        this.currentTimeSeconds = startTimeSeconds;
+    }
+
+    @Override
+    public long currentTimeSeconds() {
+        return currentTimeSeconds;
+    }
+
+    public synchronized void setTime(long timeSeconds) {
+        this.currentTimeSeconds = timeSeconds;
+    }
+
+    public synchronized void advance(long seconds) {
+        if (seconds < 0) {
+            throw new IllegalArgumentException("Time cannot go backwards");
+        }
+        this.currentTimeSeconds += seconds;
+    }
+}
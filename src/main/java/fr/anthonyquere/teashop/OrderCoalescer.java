@@ -0,0 +1,95 @@
+package fr.anthonyquere.teashop;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves identical orders from one pot: the first order of a tea brews a pot of {@code potCapacity} cups,
+ * and the same tea ordered within {@code windowSeconds} at the same water temperature gets a cup of that pot
+ * instead of heating its own water. A shared cup is steeping since the pot was brewed, so it is ready no later
+ * than a cup of its own. Callers never wait for each other: a pot that is full or too old is replaced by a
+ * compare-and-set, so when a rush of identical orders finds no pot to share, a single one of them brews.
+ * The coalescer is safe for concurrent use.
+ */
+public class OrderCoalescer {
+    private final long windowSeconds;
+    private final int potCapacity;
+    // Latest pot of each tea
+    private final ConcurrentHashMap<Tea, Pot> pots = new ConcurrentHashMap<>();
+    private final LongAdder orders = new LongAdder();
+    private final LongAdder brews = new LongAdder();
+
+    private static final class Pot {
+        private final TeaCup.State state;
+        private final AtomicInteger cupsLeft;
+
+        private Pot(TeaCup.State state, int cupsLeft) {
+            this.state = state;
+            this.cupsLeft = new AtomicInteger(cupsLeft);
+        }
+    }
+
+    /**
+     * @param windowSeconds how long after brewing a pot can still be shared, 0 for orders of the same second
+     * @param potCapacity the number of cups in a pot
+     */
+    public OrderCoalescer(long windowSeconds, int potCapacity) {
+        if (windowSeconds < 0 || potCapacity < 1) {
+            throw new IllegalArgumentException("Window must not be negative and pot capacity must be positive");
+        }
+        this.windowSeconds = windowSeconds;
+        this.potCapacity = potCapacity;
+    }
+
+    /**
+     * Fills an empty cup from the current pot of this tea, or from a new pot.
+     *
+     * @param nowSeconds the time of the order
+     */
+    public void fill(TeaCup cup, Tea tea, int waterTemperatureCelsius, long nowSeconds) {
+        orders.increment();
+        while (true) {
+            Pot pot = pots.get(tea);
+            if (pot != null && nowSeconds - pot.state.steepingStartTime() <= windowSeconds
+                    && pot.state.waterTemperatureCelsius() == waterTemperatureCelsius
+                    && pot.cupsLeft.getAndDecrement() > 0) {
+                cup.pourFrom(pot.state);
+                return;
+            }
+            // Only the order that swaps the pot brews: the others pour from the pot that won
+            Pot fresh = new Pot(brew(tea, waterTemperatureCelsius, nowSeconds), potCapacity - 1);
+            if (pot == null ? pots.putIfAbsent(tea, fresh) == null : pots.replace(tea, pot, fresh)) {
+                brews.increment();
+                cup.pourFrom(fresh.state);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the content of a freshly brewed pot, to pour into cups
+     */
+    static TeaCup.State brew(Tea tea, int waterTemperatureCelsius, long nowSeconds) {
+        return new TeaCup.State(TeaCup.Phase.STEEPING, waterTemperatureCelsius, nowSeconds, tea, nowSeconds);
+    }
+
+    public long orders() {
+        return orders.sum();
+    }
+
+    /**
+     * @return the number of pots brewed, at most the number of orders
+     */
+    public long brews() {
+        return brews.sum();
+    }
+
+    /**
+     * @return the average number of orders served per pot, 1 when nothing was coalesced
+     */
+    public double coalescingRatio() {
+        long brewed = brews.sum();
+        return brewed == 0 ? 1 : (double) orders.sum() / brewed;
+    }
+}
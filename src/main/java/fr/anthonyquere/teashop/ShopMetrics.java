@@ -0,0 +1,185 @@
+package fr.anthonyquere.teashop;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Counters and latency histograms of a {@link TeaShop}, exported in the Prometheus text format.
+ * Counters are striped {@link LongAdder}s and histograms are {@link LatencyHistogram}s, so recording from many
+ * threads neither contends nor allocates. {@link #DISABLED} records nothing: the shop checks
+ * {@link #isEnabled()} before reading the time, so a shop without metrics only pays that branch.
+ */
+public class ShopMetrics {
+    /**
+     * Metrics that record nothing, used by shops by default
+     */
+    public static final ShopMetrics DISABLED = new ShopMetrics(false);
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final boolean enabled;
+    private final LongAdder orders = new LongAdder();
+    private final LongAdder catalogHits = new LongAdder();
+    private final LongAdder catalogMisses = new LongAdder();
+    private final LongAdder invalidTemperatures = new LongAdder();
+    // Durations in nanoseconds, except the steeping of cups in seconds
+    private final LatencyHistogram prepareTea = new LatencyHistogram();
+    private final LatencyHistogram addTea = new LatencyHistogram();
+    private final LatencyHistogram setWaterTemperature = new LatencyHistogram();
+    private final LatencyHistogram cupReady = new LatencyHistogram();
+
+    public ShopMetrics() {
+        this(true);
+    }
+
+    private ShopMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    void recordOrder(boolean available) {
+        orders.increment();
+        (available ? catalogHits : catalogMisses).increment();
+    }
+
+    void recordInvalidTemperature() {
+        invalidTemperatures.increment();
+    }
+
+    void recordPrepareTea(long nanos) {
+        prepareTea.record(nanos);
+    }
+
+    void recordAddTea(long nanos) {
+        addTea.record(nanos);
+    }
+
+    void recordSetWaterTemperature(long nanos) {
+        setWaterTemperature.record(nanos);
+    }
+
+    void recordCupReady(long seconds) {
+        cupReady.record(seconds);
+    }
+
+    public long orders() {
+        return orders.sum();
+    }
+
+    public long catalogHits() {
+        return catalogHits.sum();
+    }
+
+    public long catalogMisses() {
+        return catalogMisses.sum();
+    }
+
+    public long invalidTemperatures() {
+        return invalidTemperatures.sum();
+    }
+
+    /**
+     * @return the durations of the orders of the shop, in nanoseconds: every prepareTea, every pot of
+     *         {@link TeaShop#brewPot}, and every cup of {@link TeaShop#serve}
+     */
+    public LatencyHistogram.Snapshot prepareTeaNanos() {
+        return prepareTea.snapshot();
+    }
+
+    /**
+     * @return the durations of {@link TeaShop#addTea(Tea)}, in nanoseconds
+     */
+    public LatencyHistogram.Snapshot addTeaNanos() {
+        return addTea.snapshot();
+    }
+
+    /**
+     * @return the durations of {@link TeaShop#setWaterTemperature(int)}, in nanoseconds
+     */
+    public LatencyHistogram.Snapshot setWaterTemperatureNanos() {
+        return setWaterTemperature.snapshot();
+    }
+
+    /**
+     * @return the time from adding the tea to a cup until it is ready to drink, in seconds
+     */
+    public LatencyHistogram.Snapshot cupReadySeconds() {
+        return cupReady.snapshot();
+    }
+
+    /**
+     * @return every metric in the Prometheus text exposition format; durations are in seconds
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+        counter(out, "teashop_orders_total", "Tea orders received", orders());
+        counter(out, "teashop_catalog_hits_total", "Orders of an available tea", catalogHits());
+        counter(out, "teashop_catalog_misses_total", "Orders of an unavailable tea", catalogMisses());
+        counter(out, "teashop_invalid_temperatures_total", "Rejected water temperatures", invalidTemperatures());
+        summary(out, "teashop_prepare_tea_seconds", "Duration of prepareTea", prepareTeaNanos(), 1e-9);
+        summary(out, "teashop_add_tea_seconds", "Duration of addTea", addTeaNanos(), 1e-9);
+        summary(out, "teashop_set_water_temperature_seconds", "Duration of setWaterTemperature",
+                setWaterTemperatureNanos(), 1e-9);
+        summary(out, "teashop_cup_ready_seconds", "Time from adding the tea until the cup is ready",
+                cupReadySeconds(), 1);
+        return out.toString();
+    }
+
+    /**
+     * Writes the metrics to a file, replaced atomically so that a collector never reads half of it.
+     */
+    public void writePrometheus(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temporary, toPrometheus());
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Serves the metrics at {@code /metrics} on this address until the returned server is stopped.
+     */
+    public HttpServer serve(InetSocketAddress address) throws IOException {
+        HttpServer server = HttpServer.create(address, 0);
+        server.createContext("/metrics", exchange -> {
+            try (exchange) {
+                byte[] body = toPrometheus().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void summary(StringBuilder out, String name, String help, LatencyHistogram.Snapshot snapshot,
+                                double scale) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" summary\n");
+        for (double quantile : QUANTILES) {
+            out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                    .append(snapshot.count() == 0 ? Double.NaN : snapshot.valueAt(quantile) * scale)
+                    .append('\n');
+        }
+        out.append(name).append("_sum ").append(snapshot.sum() * scale).append('\n');
+        out.append(name).append("_count ").append(snapshot.count()).append('\n');
+    }
+}
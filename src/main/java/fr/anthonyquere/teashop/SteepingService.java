@@ -0,0 +1,174 @@
+package fr.anthonyquere.teashop;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Completes futures when cups finish steeping, for callers that should not hold a thread while they wait.
+ * Every pending cup is one entry in a shared {@link SteepingTimer}, guarded by a lock since the timer is not
+ * thread-safe; a single daemon driver thread, started with the first future, moves it forward at a fixed period.
+ * Futures are completed on the executor, virtual threads by default, so their continuations never run on the
+ * driver thread; a future whose completion the executor rejects fails with the {@link RejectedExecutionException}.
+ * Closing the service cancels the futures still pending.
+ */
+public class SteepingService implements AutoCloseable {
+    private final TeaClock clock;
+    private final SteepingTimer timer;
+    private final Executor executor;
+    // Closed with the service when the service created it
+    private final ExecutorService ownedExecutor;
+    // 0 without driver thread
+    private final long periodNanos;
+    // Guarded by the timer lock, null until the first future
+    private Thread driver;
+    // Futures not completed yet, cancelled on close
+    private final Set<CompletableFuture<TeaCup>> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    /**
+     * Uses the system clock, a driver ticking every 100 ms and one virtual thread per completion.
+     */
+    public SteepingService() {
+        this(TeaClock.system());
+    }
+
+    public SteepingService(TeaClock clock) {
+        this(clock, Executors.newVirtualThreadPerTaskExecutor(), Duration.ofMillis(100), true);
+    }
+
+    /**
+     * @param executor runs the completion of the futures
+     * @param period how often the driver thread reads the clock
+     */
+    public SteepingService(TeaClock clock, Executor executor, Duration period) {
+        this(clock, executor, period, false);
+    }
+
+    /**
+     * A service without driver thread: futures only complete when {@link #runDue()} is called.
+     */
+    public SteepingService(TeaClock clock, Executor executor) {
+        this(clock, executor, null, false);
+    }
+
+    private SteepingService(TeaClock clock, Executor executor, Duration period, boolean ownsExecutor) {
+        if (period != null && (period.isNegative() || period.isZero())) {
+            throw new IllegalArgumentException("Tick period must be positive");
+        }
+        this.clock = clock;
+        this.timer = new SteepingTimer(clock.currentTimeSeconds());
+        this.executor = executor;
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+        this.periodNanos = period != null ? period.toNanos() : 0;
+    }
+
+    /**
+     * @return a future completed with the cup once its steeping time is over; cancelling it forgets the cup
+     * @throws IllegalStateException if the service is closed
+     */
+    public CompletableFuture<TeaCup> whenSteeped(TeaCup cup) {
+        CompletableFuture<TeaCup> future = new CompletableFuture<>();
+        SteepingTimer.Timeout timeout;
+        synchronized (timer) {
+            // Checked under the lock, so close sees every future scheduled before it
+            if (closed) {
+                throw new IllegalStateException("Steeping service is closed");
+            }
+            timeout = timer.schedule(cup, ready -> complete(future, ready));
+            inFlight.add(future);
+            if (driver == null && periodNanos > 0) {
+                driver = Thread.ofPlatform().daemon().name("tea-steeping-driver").start(this::drive);
+            }
+        }
+        future.whenComplete((ready, failure) -> {
+            inFlight.remove(future);
+            if (future.isCancelled()) {
+                synchronized (timer) {
+                    timer.cancel(timeout);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Completes the futures of every cup steeped at the current time of the clock.
+     */
+    public void runDue() {
+        synchronized (timer) {
+            timer.advanceTo(clock.currentTimeSeconds());
+        }
+    }
+
+    /**
+     * @return the number of cups still steeping
+     */
+    public int pending() {
+        synchronized (timer) {
+            return timer.pending();
+        }
+    }
+
+    // Runs on the driver thread, or the caller of runDue: a failure only fails its own future
+    private void complete(CompletableFuture<TeaCup> future, TeaCup ready) {
+        try {
+            executor.execute(() -> future.complete(ready));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private void drive() {
+        while (!closed) {
+            LockSupport.parkNanos(periodNanos);
+            try {
+                runDue();
+            } catch (RuntimeException e) {
+                // The other cups must still be noticed: report the failure and keep ticking
+                Thread current = Thread.currentThread();
+                current.getUncaughtExceptionHandler().uncaughtException(current, e);
+            }
+        }
+    }
+
+    /**
+     * Stops the driver thread, and the executor if the service created it.
+     * Futures still pending complete exceptionally with a {@link CancellationException}.
+     */
+    @Override
+    public void close() {
+        List<CompletableFuture<TeaCup>> pending;
+        Thread driver;
+        synchronized (timer) {
+            closed = true;
+            pending = new ArrayList<>(inFlight);
+            driver = this.driver;
+        }
+        if (driver != null) {
+            LockSupport.unpark(driver);
+            try {
+                // The driver must not hand completions to a closed executor
+                driver.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (ownedExecutor != null) {
+            ownedExecutor.close();
+        }
+        // Completions already handed to the executor have run: what is left never will
+        for (CompletableFuture<TeaCup> future : pending) {
+            future.completeExceptionally(new CancellationException("Steeping service is closed"));
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package fr.anthonyquere.teashop;
+
+import java.util.function.Consumer;
+
+/**
+ * Notifies cups when their steeping is done, instead of polling {@link TeaCup#isReadyToDrink()}.
+ * Timeouts are kept in a hierarchical timing wheel: level l has 64 slots of 64^l seconds each, and a timeout
+ * sits at the level of the highest 6-bit group of its deadline that differs from the current time.
+ * When time reaches the start of its slot it cascades to a lower level, until it fires from level 0.
+ * Scheduling and cancelling are O(1), and {@link #advanceTo(long)} jumps straight to the next occupied slot,
+ * so each timeout costs at most one move per level whatever the number of pending timeouts.
+ * A timer is not thread-safe: it is driven by a single thread, which also runs the callbacks.
+ */
+public class SteepingTimer {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    // Enough levels to cover any long deadline
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+
+    // Sentinel of the circular list of each slot, and a bitmap of the non-empty slots of each level
+    private final Timeout[][] wheel = new Timeout[LEVELS][SLOTS];
+    private final long[] occupied = new long[LEVELS];
+    // Timeouts scheduled in the past, fired on the next advance
+    private final Timeout expired = Timeout.sentinel();
+    private long currentTime;
+    // Time given to the advance in progress, later than the deadlines it fires when the timer is driven late
+    private long advanceTime;
+    private int pending;
+
+    /**
+     * @param startTime the current time, in seconds
+     */
+    public SteepingTimer(long startTime) {
+        this.currentTime = startTime;
+        for (Timeout[] level : wheel) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                level[slot] = Timeout.sentinel();
+            }
+        }
+    }
+
+    /**
+     * A scheduled notification, which can be cancelled until it fires.
+     */
+    public static final class Timeout {
+        private final long deadline;
+        private final Runnable task;
+        private Timeout previous;
+        private Timeout next;
+        private int level;
+        private int slot;
+        private boolean done;
+
+        private Timeout(long deadline, Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        private static Timeout sentinel() {
+            Timeout sentinel = new Timeout(0, null);
+            sentinel.previous = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        public long deadline() {
+            return deadline;
+        }
+
+        /**
+         * @return true once the timeout has fired or has been cancelled
+         */
+        public boolean isDone() {
+            return done;
+        }
+    }
+
+    /**
+     * Runs a task once the timer reaches the deadline. A deadline already passed fires on the next advance.
+     */
+    public Timeout schedule(long deadline, Runnable task) {
+        Timeout timeout = new Timeout(deadline, task);
+        place(timeout);
+        pending++;
+        return timeout;
+    }
+
+    /**
+     * Notifies a cup when its steeping is done, at {@link TeaCup#getSteepingStartTime()} plus the steeping time of its tea.
+     */
+    public Timeout schedule(TeaCup cup, Consumer<? super TeaCup> onReady) {
+        if (cup.getTea() == null) {
+            throw new IllegalStateException("Cannot wait for a cup without tea!");
+        }
+        TeaCup.State steeping = cup.snapshot();
+        return schedule(steeping.steepingStartTime() + steeping.tea().getSteepingTimeSeconds(), () -> {
+            TeaEvents.CupReady event = new TeaEvents.CupReady();
+            if (event.isEnabled()) {
+                event.teaName = steeping.tea().getName();
+                event.waterTemperatureCelsius = steeping.waterTemperatureCelsius();
+                event.steepingTime = steeping.tea().getSteepingTimeSeconds();
+                event.waited = Math.max(currentTime, advanceTime) - steeping.steepingStartTime();
+                event.commit();
+            }
+            onReady.accept(cup);
+        });
+    }
+
+    /**
+     * @return true if the timeout was pending and will not fire
+     */
+    public boolean cancel(Timeout timeout) {
+        if (timeout.done) {
+            return false;
+        }
+        unlink(timeout);
+        timeout.done = true;
+        pending--;
+        return true;
+    }
+
+    /**
+     * Moves the timer forward, firing every timeout whose deadline is at most {@code time}, in deadline order.
+     */
+    public void advanceTo(long time) {
+        advanceTime = time;
+        fireAll(expired);
+        while (true) {
+            long next = nextEventTime();
+            if (next == -1 || next > time) {
+                break;
+            }
+            currentTime = next;
+            // Higher levels first: their timeouts cascade down, possibly into the slot fired just after
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((next & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, (int) (next >>> (SLOT_BITS * level)) & (SLOTS - 1));
+                }
+            }
+            fireAll(expired);
+            int slot = (int) next & (SLOTS - 1);
+            occupied[0] &= ~(1L << slot);
+            fireAll(wheel[0][slot]);
+        }
+        currentTime = Math.max(currentTime, time);
+    }
+
+    public long currentTime() {
+        return currentTime;
+    }
+
+    /**
+     * @return the number of timeouts not fired nor cancelled yet
+     */
+    public int pending() {
+        return pending;
+    }
+
+    // Earliest start of an occupied slot, -1 if there is none. Occupied slots are always after the current one.
+    private long nextEventTime() {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            int current = (int) (currentTime >>> shift) & (SLOTS - 1);
+            long later = current == SLOTS - 1 ? 0 : occupied[level] & (-1L << (current + 1));
+            if (later != 0) {
+                long upper = shift + SLOT_BITS >= Long.SIZE ? 0 : currentTime >>> (shift + SLOT_BITS) << (shift + SLOT_BITS);
+                return upper | ((long) Long.numberOfTrailingZeros(later) << shift);
+            }
+        }
+        return -1;
+    }
+
+    private void place(Timeout timeout) {
+        long deadline = timeout.deadline;
+        Timeout list;
+        if (deadline <= currentTime) {
+            timeout.level = -1;
+            list = expired;
+        } else {
+            int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(deadline ^ currentTime)) / SLOT_BITS;
+            int slot = (int) (deadline >>> (SLOT_BITS * level)) & (SLOTS - 1);
+            timeout.level = level;
+            timeout.slot = slot;
+            occupied[level] |= 1L << slot;
+            list = wheel[level][slot];
+        }
+        timeout.previous = list.previous;
+        timeout.next = list;
+        list.previous.next = timeout;
+        list.previous = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        timeout.previous.next = timeout.next;
+        timeout.next.previous = timeout.previous;
+        timeout.previous = null;
+        timeout.next = null;
+        if (timeout.level >= 0 && wheel[timeout.level][timeout.slot].next == wheel[timeout.level][timeout.slot]) {
+            occupied[timeout.level] &= ~(1L << timeout.slot);
+        }
+    }
+
+    private void cascade(int level, int slot) {
+        Timeout list = wheel[level][slot];
+        occupied[level] &= ~(1L << slot);
+        Timeout timeout = list.next;
+        list.next = list;
+        list.previous = list;
+        while (timeout != list) {
+            Timeout following = timeout.next;
+            place(timeout);
+            timeout = following;
+        }
+    }
+
+    // One timeout at a time, so that callbacks can schedule or cancel other timeouts
+    private void fireAll(Timeout list) {
+        while (list.next != list) {
+            Timeout timeout = list.next;
+            unlink(timeout);
+            timeout.done = true;
+            pending--;
+            timeout.task.run();
+        }
+    }
+}
@@ -1,51 +1,77 @@
 package fr.anthonyquere.teashop;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
 
-public class Tea {
-    private String name;
-    private int steepingTimeSeconds;
-    private int idealTemperatureCelsius;
-    private boolean isLoose; // loose leaf vs tea bag
-
-    public Tea(String name, int steepingTimeSeconds, int idealTemperatureCelsius, boolean isLoose) {
-        this.name = name;
-        this.steepingTimeSeconds = steepingTimeSeconds;
-        this.idealTemperatureCelsius = idealTemperatureCelsius;
-        this.isLoose = isLoose;
+/**
+ * An immutable tea. Teas are values: changing a property gives a modified copy (withName, withSteepingTimeSeconds...),
+ * so a tea can be shared freely between threads, cups and catalogs.
+ * {@link #of} and {@link #intern()} return a single shared instance for identical teas, as long as it is in use.
+ *
+ * @param isLoose loose leaf vs tea bag
+ */
+public record Tea(String name, int steepingTimeSeconds, int idealTemperatureCelsius, boolean isLoose) {
+
+    // Canonical instance of every interned tea still referenced elsewhere: both the key and the value are weak,
+    // so teas removed from every menu and cup are collected
+    private static final Map<Tea, WeakReference<Tea>> INTERNED = new WeakHashMap<>();
+
+    public Tea {
+        Objects.requireNonNull(name, "Tea name must not be null");
     }
 
-    public String getName() {
-        return name;
+    /**
+     * @return the shared instance of this tea
+     */
+    public static Tea of(String name, int steepingTimeSeconds, int idealTemperatureCelsius, boolean isLoose) {
+        return new Tea(name, steepingTimeSeconds, idealTemperatureCelsius, isLoose).intern();
     }
 
-    public void setName(String name) {
-        this.name = name;
+    /**
+     * @return the shared instance equal to this tea, this tea itself if it is the first of its kind
+     */
+    public Tea intern() {
+        synchronized (INTERNED) {
+            WeakReference<Tea> reference = INTERNED.get(this);
+            Tea shared = reference != null ? reference.get() : null;
+            if (shared != null) {
+                return shared;
+            }
+            INTERNED.put(this, new WeakReference<>(this));
+            return this;
+        }
     }
 
-    public int getSteepingTimeSeconds() {
-        return steepingTimeSeconds;
+    public String getName() {
+        return name;
     }
 
-    public void setSteepingTimeSeconds(int steepingTimeSeconds) {
-        this.steepingTimeSeconds = steepingTimeSeconds;
+    public int getSteepingTimeSeconds() {
+        return steepingTimeSeconds;
     }
 
     public int getIdealTemperatureCelsius() {
         return idealTemperatureCelsius;
     }
 
-    public void setIdealTemperatureCelsius(int idealTemperatureCelsius) {
-        this.idealTemperatureCelsius = idealTemperatureCelsius;
+    public Tea withName(String name) {
+        return new Tea(name, steepingTimeSeconds, idealTemperatureCelsius, isLoose);
+    }
+
+    public Tea withSteepingTimeSeconds(int steepingTimeSeconds) {
+        return new Tea(name, steepingTimeSeconds, idealTemperatureCelsius, isLoose);
     }
 
-    public boolean isLoose() {
-        return isLoose;
+    public Tea withIdealTemperatureCelsius(int idealTemperatureCelsius) {
+        return new Tea(name, steepingTimeSeconds, idealTemperatureCelsius, isLoose);
     }
 
-    public void setLoose(boolean loose) {
-        isLoose = loose;
+    public Tea withLoose(boolean loose) {
+        return new Tea(name, steepingTimeSeconds, idealTemperatureCelsius, loose);
     }
 
     public static void main(String[] args) {
@@ -64,14 +90,14 @@ public class Tea {
         Tea[] teas = new Tea[numberOfTeas];
         
         // Initialize teas with different properties
-        teas[0] = new Tea("Green Tea", 120, 80, true);
+        teas[0] = Tea.of("Green Tea", 120, 80, true);
         
         if (numberOfTeas > 1) {
-            teas[1] = new Tea("Earl Grey", 180, 95, false);
+            teas[1] = Tea.of("Earl Grey", 180, 95, false);
         }
         
         if (numberOfTeas > 2) {
-            teas[2] = new Tea("Chamomile", 300, 100, true);
+            teas[2] = Tea.of("Chamomile", 300, 100, true);
         }
         
         // Add general preparation steps
@@ -104,12 +130,11 @@ public class Tea {
                 steps.add("Removing tea bag");
             }
             
-            // Modify tea properties to demonstrate setters
-            String originalName = tea.getName();
-            tea.setName(originalName + " (Prepared)");
-            tea.setSteepingTimeSeconds(tea.getSteepingTimeSeconds() + 30);
-            tea.setLoose(!tea.isLoose());
-            tea.setIdealTemperatureCelsius(tea.getIdealTemperatureCelsius() - 5);
+            // Derive a modified copy to demonstrate the withers, the shared tea is left untouched
+            tea = tea.withName(tea.getName() + " (Prepared)")
+                    .withSteepingTimeSeconds(tea.getSteepingTimeSeconds() + 30)
+                    .withLoose(!tea.isLoose())
+                    .withIdealTemperatureCelsius(tea.getIdealTemperatureCelsius() - 5);
             
             // Show updated tea properties
             steps.add("Tea updated: " + tea.getName());
@@ -0,0 +1,358 @@
+package fr.anthonyquere.teashop;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Case-insensitive tea catalog keyed by tea name.
+ * Lookups work directly on the incoming CharSequence: the hash is computed on the fly over
+ * lower-cased characters and probed in an open-addressing table, so a lookup allocates nothing.
+ * The catalog is safe for concurrent use: its content is an immutable, versioned {@link Snapshot}
+ * replaced on every write, so readers never lock and only pay one volatile read,
+ * while writers (rare) copy the table and publish the next version.
+ */
+public class TeaCatalog {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Number of most recent changes kept for Snapshot#changesSince
+    static final int MAX_HISTORY = 1024;
+
+    private volatile Snapshot current = new Snapshot(INITIAL_CAPACITY, 0, 0, new Change[0]);
+
+    /**
+     * What happened to a tea in a given catalog version.
+     *
+     * @param version the catalog version that made the change
+     * @param name the lower-case tea name
+     * @param tea the tea now in the catalog, or the removed tea for {@link Type#REMOVED}
+     */
+    public record Change(long version, Type type, String name, Tea tea) {
+        public enum Type { ADDED, REPLACED, REMOVED }
+    }
+
+    /**
+     * @return the current content of the catalog, which never changes afterwards
+     */
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    /**
+     * Adds a tea, replacing any tea with the same name regardless of case.
+     */
+    public synchronized void put(Tea tea) {
+        Snapshot snapshot = current;
+        Snapshot updated = snapshot.copy(capacityFor(snapshot.keys.length, snapshot.size + 1), snapshot.version + 1);
+        String key = fold(tea.getName());
+        Tea previous = updated.insert(key, foldedHash(key), tea);
+        Change.Type type = previous == null ? Change.Type.ADDED : Change.Type.REPLACED;
+        publish(updated, List.of(new Change(updated.version, type, key, tea)));
+    }
+
+    /**
+     * @return true if a tea with this name, regardless of case, was in the catalog
+     */
+    public synchronized boolean remove(CharSequence name) {
+        Snapshot snapshot = current;
+        int slot = snapshot.slotOf(name, foldedHash(name));
+        if (snapshot.keys[slot] == null) {
+            return false;
+        }
+        Snapshot updated = snapshot.copyWithout(slot);
+        publish(updated, List.of(new Change(updated.version, Change.Type.REMOVED, snapshot.keys[slot], snapshot.teas[slot])));
+        return true;
+    }
+
+    /**
+     * Replaces the whole catalog with these teas, published as a single version:
+     * readers see either the old catalog or the new one, never a mix.
+     */
+    public synchronized void replaceAll(Collection<Tea> teas) {
+        Snapshot snapshot = current;
+        Snapshot updated = new Snapshot(capacityFor(INITIAL_CAPACITY, teas.size()), snapshot.version + 1,
+                snapshot.historyStart, snapshot.history);
+        for (Tea tea : teas) {
+            String key = fold(tea.getName());
+            updated.insert(key, foldedHash(key), tea);
+        }
+
+        // Only record what differs from the previous version
+        List<Change> changes = new ArrayList<>();
+        for (int i = 0; i < updated.keys.length; i++) {
+            if (updated.keys[i] != null) {
+                Tea previous = snapshot.get(updated.keys[i]);
+                if (previous == null) {
+                    changes.add(new Change(updated.version, Change.Type.ADDED, updated.keys[i], updated.teas[i]));
+                } else if (!previous.equals(updated.teas[i])) {
+                    changes.add(new Change(updated.version, Change.Type.REPLACED, updated.keys[i], updated.teas[i]));
+                }
+            }
+        }
+        for (int i = 0; i < snapshot.keys.length; i++) {
+            if (snapshot.keys[i] != null && updated.get(snapshot.keys[i]) == null) {
+                changes.add(new Change(updated.version, Change.Type.REMOVED, snapshot.keys[i], snapshot.teas[i]));
+            }
+        }
+        publish(updated, changes);
+    }
+
+    /**
+     * @return the tea with this name regardless of case, or null if there is none
+     */
+    public Tea get(CharSequence name) {
+        return current.get(name);
+    }
+
+    public int size() {
+        return current.size;
+    }
+
+    /**
+     * @return the current catalog as a read-only map keyed by lower-case tea name
+     */
+    public Map<String, Tea> asMap() {
+        return current.asMap();
+    }
+
+    private void publish(Snapshot updated, List<Change> changes) {
+        updated.appendHistory(changes);
+        current = updated;
+    }
+
+    // Smallest power of two from this capacity that keeps the table at most half full
+    private static int capacityFor(int capacity, int teaCount) {
+        while (2 * teaCount > capacity) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    // Lower-cases char by char like the lookups, so that a key always has the length of the names it matches
+    static String fold(CharSequence name) {
+        char[] folded = new char[name.length()];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = Character.toLowerCase(name.charAt(i));
+        }
+        return new String(folded);
+    }
+
+    static int foldedHash(CharSequence name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(name.charAt(i));
+        }
+        // Spread the high bits, the table only uses the low ones
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equalsFolded(String key, CharSequence name) {
+        if (key.length() != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != Character.toLowerCase(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * One version of the catalog. A snapshot is immutable once published and can be shared freely between threads.
+     */
+    public static final class Snapshot {
+        // Parallel arrays, linear probing, at most half full.
+        // The non-final fields are only written before the snapshot is published through the volatile field.
+        private final String[] keys;
+        private final int[] hashes;
+        private final Tea[] teas;
+        private int size;
+        private final long version;
+        // Most recent changes, oldest first; every change made after version historyStart is kept
+        private Change[] history;
+        private long historyStart;
+        private final Map<String, Tea> map = new MapView();
+
+        private Snapshot(int capacity, long version, long historyStart, Change[] history) {
+            keys = new String[capacity];
+            hashes = new int[capacity];
+            teas = new Tea[capacity];
+            this.version = version;
+            this.historyStart = historyStart;
+            this.history = history;
+        }
+
+        /**
+         * @return the version of this snapshot, incremented by every catalog update
+         */
+        public long version() {
+            return version;
+        }
+
+        /**
+         * @return the tea with this name regardless of case, or null if there is none
+         */
+        public Tea get(CharSequence name) {
+            return teas[slotOf(name, foldedHash(name))];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return a read-only map keyed by lower-case tea name, which can be iterated while the catalog changes
+         */
+        public Map<String, Tea> asMap() {
+            return map;
+        }
+
+        /**
+         * Lists the changes between an older snapshot and this one, so a reader can update its own state
+         * without scanning the whole catalog.
+         *
+         * @param olderVersion the version of a snapshot the reader already knows
+         * @return the changes made after that version, oldest first, or empty if they are no longer
+         *         all kept and the reader must start over from this snapshot
+         */
+        public Optional<List<Change>> changesSince(long olderVersion) {
+            if (olderVersion < historyStart || olderVersion > version) {
+                return Optional.empty();
+            }
+            int first = history.length;
+            while (first > 0 && history[first - 1].version() > olderVersion) {
+                first--;
+            }
+            return Optional.of(List.of(Arrays.copyOfRange(history, first, history.length)));
+        }
+
+        private Snapshot copy(int capacity, long newVersion) {
+            Snapshot copy = new Snapshot(capacity, newVersion, historyStart, history);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null) {
+                    copy.insert(keys[i], hashes[i], teas[i]);
+                }
+            }
+            return copy;
+        }
+
+        private Snapshot copyWithout(int removedSlot) {
+            Snapshot copy = new Snapshot(keys.length, version + 1, historyStart, history);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null && i != removedSlot) {
+                    copy.insert(keys[i], hashes[i], teas[i]);
+                }
+            }
+            return copy;
+        }
+
+        private Tea insert(String key, int hash, Tea tea) {
+            int slot = slotOf(key, hash);
+            Tea previous = teas[slot];
+            if (keys[slot] == null) {
+                size++;
+            }
+            keys[slot] = key;
+            hashes[slot] = hash;
+            teas[slot] = tea;
+            return previous;
+        }
+
+        // Only called before the snapshot is published
+        private void appendHistory(List<Change> changes) {
+            int length = history.length + changes.size();
+            int dropped = Math.max(0, length - MAX_HISTORY);
+            Change[] updated = new Change[length - dropped];
+            for (int i = 0; i < updated.length; i++) {
+                int index = i + dropped;
+                updated[i] = index < history.length ? history[index] : changes.get(index - history.length);
+            }
+            if (dropped > 0) {
+                // Changes of the version of the last dropped change are no longer complete
+                Change lastDropped = dropped <= history.length ? history[dropped - 1] : changes.get(dropped - 1 - history.length);
+                historyStart = Math.max(historyStart, lastDropped.version());
+            }
+            history = updated;
+        }
+
+        // Slot holding this name, or the empty slot where it would go
+        private int slotOf(CharSequence name, int hash) {
+            int mask = keys.length - 1;
+            int slot = hash & mask;
+            while (keys[slot] != null && !(hashes[slot] == hash && equalsFolded(keys[slot], name))) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private class MapView extends AbstractMap<String, Tea> {
+            @Override
+            public Tea get(Object key) {
+                if (!(key instanceof String name)) {
+                    return null;
+                }
+                int slot = slotOf(name, foldedHash(name));
+                // Map keys are the lower-case names: other spellings are not keys of the view
+                return name.equals(keys[slot]) ? teas[slot] : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Set<Entry<String, Tea>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<String, Tea>> iterator() {
+                        return new Iterator<>() {
+                            private int slot = nextSlot(0);
+
+                            private int nextSlot(int from) {
+                                while (from < keys.length && keys[from] == null) {
+                                    from++;
+                                }
+                                return from;
+                            }
+
+                            @Override
+                            public boolean hasNext() {
+                                return slot < keys.length;
+                            }
+
+                            @Override
+                            public Entry<String, Tea> next() {
+                                if (!hasNext()) {
+                                    throw new NoSuchElementException();
+                                }
+                                Entry<String, Tea> entry = new SimpleImmutableEntry<>(keys[slot], teas[slot]);
+                                slot = nextSlot(slot + 1);
+                                return entry;
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+                };
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package fr.anthonyquere.teashop;
+
+/**
+ * Source of the current time for cups and shops, in seconds on 64 bits.
+ * Use {@link #system()} for wall-clock time, {@link #monotonic()} for time that never goes backwards,
+ * a {@link CachedClock} for hot loops and a {@link ManualClock} for tests and simulations.
+ */
+@FunctionalInterface
+public interface TeaClock {
+
+    /**
+     * @return the current time, in seconds
+     */
+    long currentTimeSeconds();
+
+    /**
+     * @return wall-clock time, in seconds since the epoch
+     */
+    static TeaClock system() {
+        return () -> System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * @return a clock that starts at the wall-clock time and then follows {@link System#nanoTime()},
+     *         so it is not affected by wall-clock adjustments
+     */
+    static TeaClock monotonic() {
+        long originSeconds = System.currentTimeMillis() / 1000;
+        long originNanos = System.nanoTime();
+        return () -> originSeconds + (System.nanoTime() - originNanos) / 1_000_000_000L;
+    }
+}
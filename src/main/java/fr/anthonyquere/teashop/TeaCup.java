@@ -1,68 +1,292 @@
 package fr.anthonyquere.teashop;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
+/**
+ * A cup moving through {@link Phase#EMPTY} → {@link Phase#WATER} → {@link Phase#STEEPING} → {@link Phase#READY}
+ * → {@link Phase#DRUNK}. The whole content of the cup is one immutable {@link State}, replaced with a single
+ * compare-and-set: a cup can be filled by one thread and watched by any number of others without locks,
+ * and every reader sees the tea, the water and the steeping start time of the same moment.
+ */
 public class TeaCup {
-    private int currentTemperatureCelsius;
-    private Tea tea;
-    private boolean isEmpty = true;
-    private int steepingStartTime; // in seconds
+    /**
+     * Maximum gap in °C between the water and the ideal temperature of the tea
+     */
+    public static final int TEMPERATURE_TOLERANCE = 5;
+
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(TeaCup.class, "state", State.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public enum Phase {
+        EMPTY,
+        WATER,
+        STEEPING,
+        /** Steeping is done and the water is at the right temperature; only ever seen in a {@link #snapshot()} */
+        READY,
+        DRUNK
+    }
+
+    /**
+     * Everything in the cup at one moment. The temperature is only computed from the water fields when it is read.
+     *
+     * @param waterTime when the water was poured, in seconds
+     * @param tea the tea, null before any tea is added
+     * @param steepingStartTime when the tea was added, in seconds
+     */
+    public record State(Phase phase, int waterTemperatureCelsius, long waterTime, Tea tea, long steepingStartTime) {
+        private static final State EMPTY_CUP = new State(Phase.EMPTY, 0, 0, null, 0);
+
+        private State withPhase(Phase phase) {
+            return new State(phase, waterTemperatureCelsius, waterTime, tea, steepingStartTime);
+        }
+    }
+
+    private volatile State state = State.EMPTY_CUP;
+    private final TeaClock clock;
+    private final CoolingModel cooling;
+    // Id in the TeaCupPool that created this cup, -1 if it is not pooled
+    int poolId = -1;
+
+    public TeaCup() {
+        this(TeaClock.system());
+    }
 
+    /**
+     * @param clock the clock that times the steeping
+     */
+    public TeaCup(TeaClock clock) {
+        this(clock, CoolingModel.NONE);
+    }
+
+    /**
+     * @param clock the clock that times the steeping
+     * @param cooling how the water cools down once poured
+     */
+    public TeaCup(TeaClock clock, CoolingModel cooling) {
+        this.clock = clock;
+        this.cooling = cooling;
+    }
+
+    /**
+     * Pours water in the cup. Water poured on steeping tea tops the cup up; an empty or drunk cup starts over.
+     */
     public void addWater(int temperatureCelsius) {
-        this.currentTemperatureCelsius = temperatureCelsius;
-        this.isEmpty = false;
+        long now = getCurrentTimeInSeconds();
+        update(current -> current.phase() == Phase.STEEPING
+                ? new State(Phase.STEEPING, temperatureCelsius, now, current.tea(), current.steepingStartTime())
+                : new State(Phase.WATER, temperatureCelsius, now, null, 0));
+
+        TeaEvents.WaterPoured event = new TeaEvents.WaterPoured();
+        if (event.isEnabled()) {
+            event.waterTemperatureCelsius = temperatureCelsius;
+            event.commit();
+        }
     }
 
     public void addTea(Tea tea) {
-        if (isEmpty) {
-            throw new IllegalStateException("Cannot add tea to an empty cup!");
+        long now = getCurrentTimeInSeconds();
+        State steeping = update(current -> {
+            if (current.phase() == Phase.EMPTY || current.phase() == Phase.DRUNK) {
+                throw new IllegalStateException("Cannot add tea to an empty cup!");
+            }
+            return new State(Phase.STEEPING, current.waterTemperatureCelsius(), current.waterTime(), tea, now);
+        });
+
+        TeaEvents.TeaAdded event = new TeaEvents.TeaAdded();
+        if (event.isEnabled()) {
+            event.teaName = tea.getName();
+            event.waterTemperatureCelsius = steeping.waterTemperatureCelsius();
+            event.steepingTime = tea.getSteepingTimeSeconds();
+            event.commit();
+        }
+    }
+
+    /**
+     * Adds the tea and registers the cup on the timer, which calls {@code onReady} once steeping is done.
+     *
+     * @return the timeout, which can be cancelled on the timer
+     */
+    public SteepingTimer.Timeout addTea(Tea tea, SteepingTimer timer, Consumer<? super TeaCup> onReady) {
+        addTea(tea);
+        return timer.schedule(this, onReady);
+    }
+
+    /**
+     * Drinks the tea. When several threads try to drink the same cup, exactly one of them succeeds.
+     *
+     * @return the tea that was drunk
+     * @throws IllegalStateException if the tea is not ready to drink
+     */
+    public Tea drink() {
+        long now = getCurrentTimeInSeconds();
+        return update(current -> {
+            if (!isReadyAt(current, now)) {
+                throw new IllegalStateException("Tea is not ready to drink!");
+            }
+            return current.withPhase(Phase.DRUNK);
+        }).tea();
+    }
+
+    // Back to an empty cup, for a pool to reuse it
+    void reset() {
+        state = State.EMPTY_CUP;
+    }
+
+    // Fills an empty or drunk cup with its share of a pot brewed for several cups at once
+    void pourFrom(State pot) {
+        update(current -> {
+            if (current.phase() != Phase.EMPTY && current.phase() != Phase.DRUNK) {
+                throw new IllegalStateException("Cannot pour into a cup that is not empty!");
+            }
+            return pot;
+        });
+    }
+
+    // Applies the transition to the current state until no other thread has changed it in between
+    private State update(UnaryOperator<State> transition) {
+        while (true) {
+            State current = state;
+            State next = transition.apply(current);
+            if (STATE.compareAndSet(this, current, next)) {
+                return next;
+            }
         }
-        this.tea = tea;
-        this.steepingStartTime = getCurrentTimeInSeconds();
+    }
+
+    /**
+     * @return the content of the cup now, with the phase {@link Phase#READY} if it is ready to drink
+     */
+    public State snapshot() {
+        State current = state;
+        return isReadyAt(current, getCurrentTimeInSeconds()) ? current.withPhase(Phase.READY) : current;
     }
 
     public boolean isReadyToDrink() {
-        if (tea == null || isEmpty) return false;
+        return isReadyAt(state, getCurrentTimeInSeconds());
+    }
+
+    private boolean isReadyAt(State state, long timeSeconds) {
+        if (state.phase() != Phase.STEEPING) return false;
+
+        long steepingTime = timeSeconds - state.steepingStartTime();
+        return steepingTime >= state.tea().getSteepingTimeSeconds() &&
+                isTemperatureIdeal(state, timeSeconds);
+    }
 
-        int steepingTime = getCurrentTimeInSeconds() - steepingStartTime;
-        return steepingTime >= tea.getSteepingTimeSeconds() &&
-                isTemperatureIdeal();
+    protected boolean isTemperatureIdeal(State state, long timeSeconds) {
+        return isTemperatureIdealAt(state, timeSeconds);
     }
 
-    protected boolean isTemperatureIdeal() {
-        return Math.abs(currentTemperatureCelsius - tea.getIdealTemperatureCelsius()) <= 5;
+    private boolean isTemperatureIdealAt(State state, long timeSeconds) {
+        return Math.abs(temperatureAt(state, timeSeconds) - state.tea().getIdealTemperatureCelsius()) <= TEMPERATURE_TOLERANCE;
     }
 
-    protected int getCurrentTimeInSeconds() {
-        return (int) (System.currentTimeMillis() / 1000);
+    private double temperatureAt(State state, long timeSeconds) {
+        return cooling.temperatureAt(state.waterTemperatureCelsius(), timeSeconds - state.waterTime());
+    }
+
+    /**
+     * Solves the cooling model for the times at which the cup is ready to drink,
+     * so that callers can wait for that time instead of polling {@link #isReadyToDrink()}.
+     *
+     * @return the drink window, or empty if there is no steeping tea or the water never gets to the right temperature
+     */
+    public Optional<DrinkWindow> getDrinkWindow() {
+        State current = state;
+        if (current.phase() != Phase.STEEPING) return Optional.empty();
+
+        Tea tea = current.tea();
+        int waterTemperatureCelsius = current.waterTemperatureCelsius();
+        long waterTime = current.waterTime();
+        double low = tea.getIdealTemperatureCelsius() - TEMPERATURE_TOLERANCE;
+        double high = tea.getIdealTemperatureCelsius() + TEMPERATURE_TOLERANCE;
+        double ambient = cooling.ambientCelsius();
+        // Seconds after pouring during which the temperature is in [low, high]: it moves monotonically towards ambient
+        boolean inRange = waterTemperatureCelsius >= low && waterTemperatureCelsius <= high;
+        double enter;
+        double exit;
+        if (cooling.ratePerSecond() == 0 || waterTemperatureCelsius == ambient) {
+            // The temperature never changes
+            enter = inRange ? 0 : Double.POSITIVE_INFINITY;
+            exit = Double.POSITIVE_INFINITY;
+        } else {
+            enter = inRange ? 0 : cooling.timeToReach(waterTemperatureCelsius, waterTemperatureCelsius > high ? high : low);
+            exit = cooling.timeToReach(waterTemperatureCelsius, waterTemperatureCelsius > ambient ? low : high);
+        }
+        if (enter == Double.POSITIVE_INFINITY) return Optional.empty();
+
+        // Whole seconds, corrected by one where rounding disagrees with the temperature actually computed
+        long earliest = current.steepingStartTime() + tea.getSteepingTimeSeconds();
+        long from = enter == 0 ? earliest : Math.max(earliest, waterTime + (long) Math.ceil(enter));
+        if (!isTemperatureIdealAt(current, from)) {
+            from++;
+        } else if (from > earliest && isTemperatureIdealAt(current, from - 1)) {
+            from--;
+        }
+        long until = Long.MAX_VALUE;
+        if (exit != Double.POSITIVE_INFINITY) {
+            until = waterTime + (long) Math.floor(exit) + 1;
+            if (isTemperatureIdealAt(current, until)) {
+                until++;
+            } else if (!isTemperatureIdealAt(current, until - 1)) {
+                until--;
+            }
+        }
+        return from < until ? Optional.of(new DrinkWindow(from, until)) : Optional.empty();
+    }
+
+    protected long getCurrentTimeInSeconds() {
+        return clock.currentTimeSeconds();
     }
     
     public int getCurrentTemperatureCelsius() {
-        return currentTemperatureCelsius;
+        return (int) Math.round(getTemperatureAt(getCurrentTimeInSeconds()));
+    }
+
+    /**
+     * @return the temperature of the water at that time according to the cooling model
+     */
+    public double getTemperatureAt(long timeSeconds) {
+        return temperatureAt(state, timeSeconds);
     }
     
     public Tea getTea() {
-        return tea;
+        return state.tea();
     }
     
     public boolean isEmpty() {
-        return isEmpty;
+        Phase phase = state.phase();
+        return phase == Phase.EMPTY || phase == Phase.DRUNK;
     }
     
-    public int getSteepingStartTime() {
-        return steepingStartTime;
+    public long getSteepingStartTime() {
+        return state.steepingStartTime();
     }
     
-    public int getSteepingTimeElapsed() {
-        if (tea == null || isEmpty) return 0;
-        return getCurrentTimeInSeconds() - steepingStartTime;
+    public long getSteepingTimeElapsed() {
+        State current = state;
+        if (current.phase() != Phase.STEEPING) return 0;
+        return getCurrentTimeInSeconds() - current.steepingStartTime();
     }
     
-    public int getSteepingTimeRemaining() {
-        if (tea == null || isEmpty) return 0;
-        int elapsed = getSteepingTimeElapsed();
-        int required = tea.getSteepingTimeSeconds();
+    public long getSteepingTimeRemaining() {
+        State current = state;
+        if (current.phase() != Phase.STEEPING) return 0;
+        long elapsed = getCurrentTimeInSeconds() - current.steepingStartTime();
+        int required = current.tea().getSteepingTimeSeconds();
         return Math.max(0, required - elapsed);
     }
     
@@ -79,12 +303,13 @@ public class TeaCup {
         List<String> steps = new ArrayList<>();
         steps.add("=== Tea Cup Preparation Simulation ===");
         
-        // Create a testable cup that we can manipulate time on
-        TestableTeaCup cup = new TestableTeaCup();
+        // Create a cup on a manual clock, so that we can manipulate time
+        ManualClock clock = new ManualClock(1000);
+        TestableTeaCup cup = new TestableTeaCup(clock);
         steps.add("Created a new tea cup");
         
         // Create a tea
-        Tea greenTea = new Tea("Green Tea", 120, 80, true);
+        Tea greenTea = Tea.of("Green Tea", 120, 80, true);
         steps.add("Created " + greenTea.getName() + " (steeping time: " + 
                   greenTea.getSteepingTimeSeconds() + "s, ideal temp: " + 
                   greenTea.getIdealTemperatureCelsius() + "°C)");
@@ -114,7 +339,7 @@ public class TeaCup {
         
         // Add tea to cup
         steps.add("\nAdding " + greenTea.getName() + " to cup");
-        cup.setCurrentTime(1000); // Set initial time
+        clock.setTime(1000); // Set initial time
         cup.addTea(greenTea);
         steps.add("Tea added at time: " + cup.getSteepingStartTime() + " seconds");
         
@@ -125,14 +350,14 @@ public class TeaCup {
         steps.add("Steeping time remaining: " + cup.getSteepingTimeRemaining() + " seconds");
         
         // Simulate time passing, but not enough
-        cup.setCurrentTime(1060); // 60 seconds later
+        clock.setTime(1060); // 60 seconds later
         steps.add("\nTime passed: 60 seconds");
         steps.add("Is ready to drink: " + cup.isReadyToDrink());
         steps.add("Steeping time elapsed: " + cup.getSteepingTimeElapsed() + " seconds");
         steps.add("Steeping time remaining: " + cup.getSteepingTimeRemaining() + " seconds");
         
         // Simulate time passing, enough time but wrong temperature
-        cup.setCurrentTime(1130); // 130 seconds later (> 120 required)
+        clock.setTime(1130); // 130 seconds later (> 120 required)
         cup.setIdealTemperatureOffset(10); // Set temperature to be non-ideal
         steps.add("\nTime passed: 130 seconds (steeping complete)");
         steps.add("But temperature is not ideal (offset: 10°C)");
@@ -141,7 +366,7 @@ public class TeaCup {
         steps.add("Steeping time remaining: " + cup.getSteepingTimeRemaining() + " seconds");
         
         // Simulate perfect conditions
-        cup.setCurrentTime(1150); // 150 seconds later
+        clock.setTime(1150); // 150 seconds later
         cup.setIdealTemperatureOffset(0); // Set temperature to be ideal
         steps.add("\nTime passed: 150 seconds, temperature is now ideal");
         steps.add("Is ready to drink: " + cup.isReadyToDrink());
@@ -152,13 +377,12 @@ public class TeaCup {
         return steps;
     }
     
-    // This subclass allows us to control time for testing purposes
+    // Time is driven by a manual clock, this subclass only controls the temperature check
     private static class TestableTeaCup extends TeaCup {
-        private int currentTimeSeconds = 1000;
         private int idealTemperatureOffset = 0;
         
-        public void setCurrentTime(int timeInSeconds) {
-            this.currentTimeSeconds = timeInSeconds;
+        TestableTeaCup(TeaClock clock) {
+            super(clock);
         }
         
         public void setIdealTemperatureOffset(int offset) {
@@ -166,13 +390,8 @@ public class TeaCup {
         }
         
         @Override
-        protected int getCurrentTimeInSeconds() {
-            return currentTimeSeconds;
-        }
-        
-        @Override
-        protected boolean isTemperatureIdeal() {
-            if (getTea() == null) return false;
+        protected boolean isTemperatureIdeal(State state, long timeSeconds) {
+            if (state.tea() == null) return false;
             // If offset is 0, return true (ideal temperature)
             // If offset is not 0, return false (not ideal temperature)
             return idealTemperatureOffset == 0;
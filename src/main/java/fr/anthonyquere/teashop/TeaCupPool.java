@@ -0,0 +1,266 @@
+package fr.anthonyquere.teashop;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reuses cups instead of allocating one per order. Each platform thread keeps a small cache of free cups;
+ * cups that do not fit in it, and cups released by virtual threads, go to a shared lock-free stack that any
+ * thread can take from. The caches of threads that have ended are given back to the shared stack.
+ * The shared stack links cups by id in an int array and tags its top with a stamp, so it allocates nothing
+ * and is not fooled by a cup popped and pushed back between a read and a compare-and-set.
+ * A cup must be given back with {@link #release(TeaCup)} once served, and must not be used afterwards.
+ * Cups created beyond the capacity are tracked while leased, then left to the garbage collector.
+ * In debug mode the pool remembers where each cup was acquired, to report cups never released.
+ */
+public class TeaCupPool {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    public static final int DEFAULT_LOCAL_CAPACITY = 64;
+
+    private static final int FREE = 0;
+    private static final int LEASED = 1;
+    private static final long EMPTY_STACK = 0;
+    // Acquisition site of the overflow cups outside debug mode
+    private static final Throwable UNKNOWN_SITE = new Throwable("Cup acquired beyond capacity");
+
+    private final TeaClock clock;
+    private final CoolingModel cooling;
+    private final boolean debug;
+    private final int localCapacity;
+
+    // Every cup the pool manages, by id; cups created beyond the capacity are not pooled
+    private final TeaCup[] cups;
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicIntegerArray leases;
+    private final Throwable[] acquiredAt;
+    // Leased cups created beyond the capacity, with where they were acquired in debug mode
+    private final Map<TeaCup, Throwable> overflowLeases = new ConcurrentHashMap<>();
+
+    // Shared stack: top is (stamp << 32) | (id + 1), 0 when empty, and below[id] is the id under a cup, or -1
+    private final AtomicLong top = new AtomicLong(EMPTY_STACK);
+    private final int[] below;
+
+    // Caches of platform threads only: virtual threads are too short-lived and too many to keep cups
+    private final ThreadLocal<LocalCache> localCache;
+    private final ConcurrentLinkedQueue<LocalCache> localCaches = new ConcurrentLinkedQueue<>();
+
+    private static final class LocalCache {
+        private final WeakReference<Thread> owner;
+        private final TeaCup[] cups;
+        private int size;
+
+        private LocalCache(Thread owner, int capacity) {
+            this.owner = new WeakReference<>(owner);
+            this.cups = new TeaCup[capacity];
+        }
+    }
+
+    public TeaCupPool() {
+        this(TeaClock.system(), CoolingModel.NONE, DEFAULT_CAPACITY, DEFAULT_LOCAL_CAPACITY, false);
+    }
+
+    /**
+     * @param clock the clock of the cups
+     * @param cooling how the water of the cups cools down
+     * @param capacity the maximum number of cups the pool manages
+     * @param localCapacity the number of free cups each thread keeps for itself
+     * @param debug true to record where cups are acquired, for {@link #leaks()}
+     */
+    public TeaCupPool(TeaClock clock, CoolingModel cooling, int capacity, int localCapacity, boolean debug) {
+        if (capacity < 1 || localCapacity < 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.clock = clock;
+        this.cooling = cooling;
+        this.debug = debug;
+        this.localCapacity = localCapacity;
+        this.cups = new TeaCup[capacity];
+        this.leases = new AtomicIntegerArray(capacity);
+        this.acquiredAt = debug ? new Throwable[capacity] : null;
+        this.below = new int[capacity];
+        this.localCache = ThreadLocal.withInitial(this::registerLocalCache);
+    }
+
+    /**
+     * @return an empty cup, reused if one is free
+     */
+    public TeaCup acquire() {
+        TeaCup cup = pollLocal();
+        if (cup == null) {
+            cup = pop();
+        }
+        if (cup == null && drainEndedThreads()) {
+            cup = pop();
+        }
+        if (cup == null) {
+            cup = create();
+        }
+        Throwable site = debug ? new Throwable("Cup acquired here") : UNKNOWN_SITE;
+        if (cup.poolId >= 0) {
+            leases.set(cup.poolId, LEASED);
+            if (debug) {
+                acquiredAt[cup.poolId] = site;
+            }
+        } else {
+            overflowLeases.put(cup, site);
+        }
+        return cup;
+    }
+
+    /**
+     * Empties the cup and makes it available to the next order.
+     *
+     * @throws IllegalStateException if the cup is not leased from this pool
+     */
+    public void release(TeaCup cup) {
+        int id = cup.poolId;
+        if (id < 0) {
+            // Created beyond the capacity, then left to the garbage collector
+            if (overflowLeases.remove(cup) == null) {
+                throw new IllegalStateException("Cup released twice or not acquired from this pool");
+            }
+            return;
+        }
+        if (id >= cups.length || cups[id] != cup || !leases.compareAndSet(id, LEASED, FREE)) {
+            throw new IllegalStateException("Cup released twice or not acquired from this pool");
+        }
+        if (debug) {
+            acquiredAt[id] = null;
+        }
+        cup.reset();
+        LocalCache local = usesLocalCache() ? localCache.get() : null;
+        if (local != null && local.size < localCapacity) {
+            local.cups[local.size++] = cup;
+        } else {
+            push(id);
+        }
+    }
+
+    /**
+     * @return the number of cups acquired and not released yet
+     */
+    public int leased() {
+        int leased = 0;
+        for (int id = 0; id < Math.min(created.get(), cups.length); id++) {
+            leased += leases.get(id);
+        }
+        return leased + overflowLeases.size();
+    }
+
+    /**
+     * @return the number of cups the pool has allocated so far
+     */
+    public int created() {
+        return Math.min(created.get(), cups.length);
+    }
+
+    /**
+     * In debug mode, lists where each cup not released yet was acquired.
+     */
+    public List<Throwable> leaks() {
+        if (!debug) {
+            throw new IllegalStateException("Leak detection needs a pool in debug mode");
+        }
+        List<Throwable> leaks = new ArrayList<>();
+        for (int id = 0; id < created(); id++) {
+            Throwable site = acquiredAt[id];
+            if (leases.get(id) == LEASED && site != null) {
+                leaks.add(site);
+            }
+        }
+        leaks.addAll(overflowLeases.values());
+        return leaks;
+    }
+
+    public TeaClock clock() {
+        return clock;
+    }
+
+    private boolean usesLocalCache() {
+        return localCapacity > 0 && !Thread.currentThread().isVirtual();
+    }
+
+    private LocalCache registerLocalCache() {
+        drainEndedThreads();
+        LocalCache local = new LocalCache(Thread.currentThread(), localCapacity);
+        localCaches.add(local);
+        return local;
+    }
+
+    // Moves the cups cached by threads that have ended to the shared stack, and forgets their caches
+    private boolean drainEndedThreads() {
+        boolean drained = false;
+        for (LocalCache local : localCaches) {
+            Thread owner = local.owner.get();
+            // Seeing the thread ended makes its last writes to the cache visible; removing it claims the cache
+            if ((owner == null || !owner.isAlive()) && localCaches.remove(local)) {
+                for (int i = 0; i < local.size; i++) {
+                    push(local.cups[i].poolId);
+                    drained = true;
+                }
+            }
+        }
+        return drained;
+    }
+
+    private TeaCup pollLocal() {
+        if (!usesLocalCache()) {
+            return null;
+        }
+        LocalCache local = localCache.get();
+        if (local.size == 0) {
+            return null;
+        }
+        TeaCup cup = local.cups[--local.size];
+        local.cups[local.size] = null;
+        return cup;
+    }
+
+    private TeaCup create() {
+        int id = created.getAndIncrement();
+        if (id >= cups.length) {
+            created.set(cups.length);
+            return new TeaCup(clock, cooling);
+        }
+        TeaCup cup = new TeaCup(clock, cooling);
+        cup.poolId = id;
+        cups[id] = cup;
+        return cup;
+    }
+
+    private void push(int id) {
+        while (true) {
+            long current = top.get();
+            below[id] = (int) current - 1;
+            if (top.compareAndSet(current, next(current, id))) {
+                return;
+            }
+        }
+    }
+
+    private TeaCup pop() {
+        while (true) {
+            long current = top.get();
+            int id = (int) current - 1;
+            if (id < 0) {
+                return null;
+            }
+            if (top.compareAndSet(current, next(current, below[id]))) {
+                return cups[id];
+            }
+        }
+    }
+
+    // New top with this id, and a stamp changed on every update
+    private static long next(long current, int id) {
+        long stamp = (current >>> 32) + 1;
+        return (stamp << 32) | (id + 1L);
+    }
+}
@@ -0,0 +1,99 @@
+package fr.anthonyquere.teashop;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events of the life of an order and its cup. They are disabled by default, so an event
+ * only costs a check of its enabled flag; the bundled {@code teashop.jfc} settings turn them all on:
+ * {@code java -XX:StartFlightRecording:settings=teashop.jfc,filename=teashop.jfr ...},
+ * then summarize the recording with {@link TeaTraceAnalyzer}.
+ */
+final class TeaEvents {
+    static final String ORDER = "fr.anthonyquere.teashop.TeaOrder";
+    static final String WATER_POURED = "fr.anthonyquere.teashop.WaterPoured";
+    static final String TEA_ADDED = "fr.anthonyquere.teashop.TeaAdded";
+    static final String CUP_READY = "fr.anthonyquere.teashop.CupReady";
+
+    private TeaEvents() {
+    }
+
+    @Name(ORDER)
+    @Label("Tea Order")
+    @Description("An order prepared by a tea shop, from the catalog lookup to the tea in the cup")
+    @Category("Tea Shop")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Order extends Event {
+        @Label("Tea")
+        String teaName;
+
+        @Label("Water Temperature")
+        @Description("In °C")
+        int waterTemperatureCelsius;
+
+        @Label("Available")
+        boolean available;
+    }
+
+    @Name(WATER_POURED)
+    @Label("Water Poured")
+    @Category("Tea Shop")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class WaterPoured extends Event {
+        @Label("Water Temperature")
+        @Description("In °C")
+        int waterTemperatureCelsius;
+    }
+
+    @Name(TEA_ADDED)
+    @Label("Tea Added")
+    @Description("Tea added to a cup of water: steeping starts")
+    @Category("Tea Shop")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class TeaAdded extends Event {
+        @Label("Tea")
+        String teaName;
+
+        @Label("Water Temperature")
+        @Description("In °C")
+        int waterTemperatureCelsius;
+
+        @Label("Steeping Time")
+        @Timespan(Timespan.SECONDS)
+        long steepingTime;
+    }
+
+    @Name(CUP_READY)
+    @Label("Cup Ready")
+    @Description("A steeping timer noticed that a cup has steeped long enough")
+    @Category("Tea Shop")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class CupReady extends Event {
+        @Label("Tea")
+        String teaName;
+
+        @Label("Water Temperature")
+        @Description("In °C")
+        int waterTemperatureCelsius;
+
+        @Label("Steeping Time")
+        @Description("Steeping time of the tea")
+        @Timespan(Timespan.SECONDS)
+        long steepingTime;
+
+        @Label("Waited")
+        @Description("Time from adding the tea until the timer noticed the cup was ready")
+        @Timespan(Timespan.SECONDS)
+        long waited;
+    }
+}
@@ -1,47 +1,326 @@
 package fr.anthonyquere.teashop;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
-public class TeaShop {
-    private final Map<String, Tea> availableTeas = new HashMap<>();
-    private int waterTemperature;
+/**
+ * A tea shop that can serve orders from many threads at once: the catalog is read without locks
+ * and the water temperature is a volatile field, so every order sees the latest valid temperature.
+ * Readers that need a consistent view of the teas take a {@link TeaCatalog.Snapshot}.
+ * A shop that took asynchronous orders must be closed to stop the steeping service it started.
+ */
+public class TeaShop implements AutoCloseable {
+    private final TeaCatalog availableTeas = new TeaCatalog();
+    private volatile int waterTemperature;
+    private final TeaClock clock;
+    // Null when every order gets a new cup
+    private final TeaCupPool cupPool;
+    // Created on the first asynchronous order
+    private volatile SteepingService steeping;
+    // Guarded by this, so no service is started once the shop is closed
+    private boolean closed;
+    private volatile ShopMetrics metrics = ShopMetrics.DISABLED;
 
     public TeaShop(int defaultWaterTemperature) {
+        this(defaultWaterTemperature, TeaClock.system());
+    }
+
+    /**
+     * @param clock the clock given to every cup prepared by the shop
+     */
+    public TeaShop(int defaultWaterTemperature, TeaClock clock) {
+        this(defaultWaterTemperature, clock, null);
+    }
+
+    /**
+     * Serves orders in cups taken from the pool: served cups must be given back with {@link #releaseCup(TeaCup)}.
+     */
+    public TeaShop(int defaultWaterTemperature, TeaCupPool cupPool) {
+        this(defaultWaterTemperature, cupPool.clock(), cupPool);
+    }
+
+    private TeaShop(int defaultWaterTemperature, TeaClock clock, TeaCupPool cupPool) {
         this.waterTemperature = defaultWaterTemperature;
+        this.clock = clock;
+        this.cupPool = cupPool;
     }
 
+    /**
+     * Adds the shared instance of this tea, so identical teas across shops and cups are one object.
+     */
     public void addTea(Tea tea) {
-        availableTeas.put(tea.getName().toLowerCase(), tea);
+        ShopMetrics metrics = this.metrics;
+        if (!metrics.isEnabled()) {
+            availableTeas.put(tea.intern());
+            return;
+        }
+        long start = System.nanoTime();
+        availableTeas.put(tea.intern());
+        metrics.recordAddTea(System.nanoTime() - start);
+    }
+
+    /**
+     * @return true if the tea was available
+     */
+    public boolean removeTea(CharSequence teaName) {
+        return availableTeas.remove(teaName);
+    }
+
+    /**
+     * Replaces the whole menu at once: orders see either the old menu or the new one.
+     */
+    public void reloadTeas(Collection<Tea> teas) {
+        availableTeas.replaceAll(teas.stream().map(Tea::intern).toList());
+    }
+
+    public TeaCup prepareTea(CharSequence teaName) {
+        return prepare(teaName, null, waterTemperature, this::pour);
+    }
+
+    /**
+     * Prepares a tea, sharing a pot with the identical orders served by the coalescer shortly before.
+     */
+    public TeaCup prepareTea(CharSequence teaName, OrderCoalescer coalescer) {
+        return prepare(teaName, null, waterTemperature, (tea, temperature) -> {
+            TeaCup cup = newCup();
+            coalescer.fill(cup, tea, temperature, clock.currentTimeSeconds());
+            recordCupReady(cup);
+            return cup;
+        });
+    }
+
+    /**
+     * Brews one pot of a tea and pours it into {@code cups} cups, which all steep from the same moment.
+     * The pot counts as one order.
+     */
+    public List<TeaCup> brewPot(CharSequence teaName, int cups) {
+        if (cups < 1) {
+            throw new IllegalArgumentException("A pot must serve at least one cup");
+        }
+        return prepare(teaName, null, waterTemperature, (tea, temperature) -> {
+            TeaCup.State pot = OrderCoalescer.brew(tea, temperature, clock.currentTimeSeconds());
+            List<TeaCup> served = new ArrayList<>(cups);
+            for (int i = 0; i < cups; i++) {
+                TeaCup cup = newCup();
+                cup.pourFrom(pot);
+                served.add(cup);
+            }
+            return served;
+        });
+    }
+
+    /**
+     * Queues an order on the kettle scheduler instead of using the current water temperature of the shop.
+     */
+    public KettleScheduler.Order order(CharSequence teaName, KettleScheduler scheduler) {
+        return scheduler.submit(findTea(teaName), clock.currentTimeSeconds());
+    }
+
+    /**
+     * Pours the water of a kettle batch: one cup per order, at the temperature of the batch.
+     * Each cup counts as one order, its tea having been found when the order was queued.
+     */
+    public List<TeaCup> serve(KettleScheduler.Batch batch) {
+        List<TeaCup> cups = new ArrayList<>(batch.orders().size());
+        for (KettleScheduler.Order order : batch.orders()) {
+            cups.add(prepare(order.tea().getName(), order.tea(), batch.waterTemperatureCelsius(), this::pour));
+        }
+        return cups;
+    }
+
+    /**
+     * Gives a served cup back to the pool of the shop; without a pool the cup is simply dropped.
+     */
+    public void releaseCup(TeaCup cup) {
+        if (cupPool != null) {
+            cupPool.release(cup);
+        }
+    }
+
+    /**
+     * Prepares a tea and registers the cup on the timer, which calls {@code onReady} once steeping is done.
+     * The timer is not thread-safe: call this from the thread that drives it.
+     */
+    public TeaCup prepareTea(CharSequence teaName, SteepingTimer timer, Consumer<? super TeaCup> onReady) {
+        TeaCup cup = prepareTea(teaName);
+        timer.schedule(cup, onReady);
+        return cup;
     }
 
-    public TeaCup prepareTea(String teaName) {
-        Tea tea = availableTeas.get(teaName.toLowerCase());
+    // What an order does once its tea is known
+    @FunctionalInterface
+    private interface Preparation<T> {
+        T prepare(Tea tea, int waterTemperatureCelsius);
+    }
+
+    /**
+     * Runs one order, timed in the prepareTea metrics and traced as a TeaOrder event.
+     *
+     * @param tea the tea ordered, or null to look {@code teaName} up in the catalog
+     */
+    private <T> T prepare(CharSequence teaName, Tea tea, int waterTemperatureCelsius, Preparation<T> preparation) {
+        ShopMetrics metrics = this.metrics;
+        TeaEvents.Order event = new TeaEvents.Order();
+        if (!metrics.isEnabled() && !event.isEnabled()) {
+            return preparation.prepare(tea != null ? tea : findTea(teaName), waterTemperatureCelsius);
+        }
+
+        long start = System.nanoTime();
+        event.begin();
+        try {
+            if (tea == null) {
+                tea = findTea(teaName);
+            }
+            T prepared = preparation.prepare(tea, waterTemperatureCelsius);
+            if (metrics.isEnabled()) {
+                metrics.recordPrepareTea(System.nanoTime() - start);
+            }
+            return prepared;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.teaName = tea != null ? tea.getName() : teaName.toString();
+                event.waterTemperatureCelsius = waterTemperatureCelsius;
+                event.available = tea != null;
+                event.commit();
+            }
+        }
+    }
+
+    private Tea findTea(CharSequence teaName) {
+        Tea tea = availableTeas.get(teaName);
+        ShopMetrics metrics = this.metrics;
+        if (metrics.isEnabled()) {
+            metrics.recordOrder(tea != null);
+        }
         if (tea == null) {
             throw new IllegalArgumentException("Tea not available: " + teaName);
         }
+        return tea;
+    }
+
+    private TeaCup newCup() {
+        return cupPool != null ? cupPool.acquire() : new TeaCup(clock);
+    }
 
-        TeaCup cup = new TeaCup();
-        cup.addWater(waterTemperature);
+    private TeaCup pour(Tea tea, int waterTemperatureCelsius) {
+        TeaCup cup = newCup();
+        cup.addWater(waterTemperatureCelsius);
         cup.addTea(tea);
+        recordCupReady(cup);
         return cup;
     }
 
+    private void recordCupReady(TeaCup cup) {
+        ShopMetrics metrics = this.metrics;
+        if (metrics.isEnabled()) {
+            // Known in advance from the water and the tea: no need to watch the cup
+            cup.getDrinkWindow().ifPresent(window ->
+                    metrics.recordCupReady(window.fromSeconds() - cup.getSteepingStartTime()));
+        }
+    }
+
+    /**
+     * Prepares a tea without waiting for it: the future completes, on a virtual thread, once steeping is done.
+     * The shop drives all its asynchronous orders with one {@link SteepingService} on its clock, started by the
+     * first of them and stopped by {@link #close()}.
+     *
+     * @throws IllegalArgumentException if the tea is not available
+     * @throws IllegalStateException if the shop is closed
+     */
+    public CompletableFuture<TeaCup> prepareTeaAsync(CharSequence teaName) {
+        SteepingService service = steeping;
+        if (service == null) {
+            synchronized (this) {
+                service = steeping;
+                if (service == null) {
+                    if (closed) {
+                        throw new IllegalStateException("Tea shop is closed");
+                    }
+                    service = new SteepingService(clock);
+                    steeping = service;
+                }
+            }
+        }
+        return prepareTeaAsync(teaName, service);
+    }
+
+    // The service of the asynchronous orders, null until the first of them
+    SteepingService steepingService() {
+        return steeping;
+    }
+
+    /**
+     * Stops the steeping service of the asynchronous orders, cancelling the futures still pending.
+     * Synchronous orders are still served after the shop is closed.
+     */
+    @Override
+    public void close() {
+        SteepingService service;
+        synchronized (this) {
+            closed = true;
+            service = steeping;
+        }
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    /**
+     * Prepares a tea whose future is completed by this steeping service.
+     *
+     * @throws IllegalArgumentException if the tea is not available
+     */
+    public CompletableFuture<TeaCup> prepareTeaAsync(CharSequence teaName, SteepingService service) {
+        return service.whenSteeped(prepareTea(teaName));
+    }
+
     public void setWaterTemperature(int celsius) {
+        ShopMetrics metrics = this.metrics;
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
         if (celsius < 0 || celsius > 100) {
+            if (metrics.isEnabled()) {
+                metrics.recordInvalidTemperature();
+            }
             throw new IllegalArgumentException("Water temperature must be between 0 and 100°C");
         }
         this.waterTemperature = celsius;
+        if (metrics.isEnabled()) {
+            metrics.recordSetWaterTemperature(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Starts recording the operations of the shop in these metrics, or stops with {@link ShopMetrics#DISABLED}.
+     */
+    public void setMetrics(ShopMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public ShopMetrics getMetrics() {
+        return metrics;
     }
 
     public int getWaterTemperature() {
         return waterTemperature;
     }
 
+    /**
+     * @return the available teas at this moment, keyed by lower-case name; the map never changes afterwards
+     */
     public Map<String, Tea> getAvailableTeas() {
-        return availableTeas;
+        return availableTeas.snapshot().asMap();
+    }
+
+    /**
+     * @return the current version of the catalog, which never changes afterwards
+     */
+    public TeaCatalog.Snapshot getCatalogSnapshot() {
+        return availableTeas.snapshot();
     }
 
     public static void main(String[] args) {
@@ -62,9 +341,9 @@ public class TeaShop {
         operations.add("Tea shop initialized with water temperature: " + shop.getWaterTemperature() + "°C");
         
         // Create different teas
-        Tea greenTea = new Tea("Green Tea", 120, 80, true);
-        Tea earlGrey = new Tea("Earl Grey", 180, 95, false);
-        Tea chamomile = new Tea("Chamomile", 300, 100, true);
+        Tea greenTea = Tea.of("Green Tea", 120, 80, true);
+        Tea earlGrey = Tea.of("Earl Grey", 180, 95, false);
+        Tea chamomile = Tea.of("Chamomile", 300, 100, true);
         
         // Add teas to the shop
         shop.addTea(greenTea);
@@ -133,4 +412,4 @@ public class TeaShop {
         operations.add("\n=== End of Tea Shop Simulation ===");
         return operations;
     }
-}
\ No newline at end of file
+}
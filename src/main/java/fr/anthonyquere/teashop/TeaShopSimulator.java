@@ -0,0 +1,237 @@
+package fr.anthonyquere.teashop;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Discrete-event simulation of a tea shop: orders arrive following an {@link ArrivalProcess}, are grouped into
+ * kettle batches by a {@link KettleScheduler}, and are poured by a real {@link TeaShop} whose clock is a
+ * {@link ManualClock} moved from one event to the next. Nothing waits for real time, so millions of orders
+ * take seconds, and a given seed always replays the same run: every run starts with new kettles.
+ */
+public class TeaShopSimulator {
+
+    /**
+     * When customers come in.
+     */
+    public interface ArrivalProcess {
+        /**
+         * @param time the time of the previous arrival, in seconds
+         * @return the time of the next arrival, not before {@code time}
+         */
+        double next(double time, SplittableRandom random);
+    }
+
+    /**
+     * Customers arriving independently at a constant average rate.
+     */
+    public record Poisson(double ratePerSecond) implements ArrivalProcess {
+        public Poisson {
+            if (ratePerSecond <= 0) {
+                throw new IllegalArgumentException("Arrival rate must be positive");
+            }
+        }
+
+        @Override
+        public double next(double time, SplittableRandom random) {
+            return time - Math.log(1 - random.nextDouble()) / ratePerSecond;
+        }
+    }
+
+    /**
+     * Poisson arrivals whose rate rises to {@code burstRatePerSecond} during the first {@code burstSeconds}
+     * of every {@code periodSeconds}, like rushes at opening and lunch time.
+     */
+    public record Bursts(double ratePerSecond, double burstRatePerSecond, long periodSeconds, long burstSeconds)
+            implements ArrivalProcess {
+        public Bursts {
+            if (ratePerSecond <= 0 || burstRatePerSecond <= 0 || periodSeconds < 1 || burstSeconds < 0
+                    || burstSeconds > periodSeconds) {
+                throw new IllegalArgumentException("Invalid burst arrival process");
+            }
+        }
+
+        @Override
+        public double next(double time, SplittableRandom random) {
+            // Thinning: candidates at the highest rate, kept with the ratio of the rate of the moment
+            double maxRate = Math.max(ratePerSecond, burstRatePerSecond);
+            while (true) {
+                time -= Math.log(1 - random.nextDouble()) / maxRate;
+                double rate = time % periodSeconds < burstSeconds ? burstRatePerSecond : ratePerSecond;
+                if (random.nextDouble() * maxRate < rate) {
+                    return time;
+                }
+            }
+        }
+    }
+
+    /**
+     * Outcome of a run. Waits are from the arrival of an order; percentiles are exact.
+     *
+     * @param durationSeconds the time from the first arrival to the last cup ready
+     * @param ordersPerMinute orders served per minute over that duration
+     * @param kettleWaitSeconds p50, p90, p99 and max of the wait until the kettle of the order starts
+     * @param readyWaitSeconds p50, p90, p99 and max of the wait until the cup is ready to drink
+     * @param kettleUtilization the share of time kettles spent boiling
+     */
+    public record Report(long orders, long durationSeconds, double ordersPerMinute, long[] kettleWaitSeconds,
+                         long[] readyWaitSeconds, double kettleUtilization, long batches, long switches) {
+
+        public List<String> toLines() {
+            List<String> lines = new ArrayList<>();
+            lines.add("=== Tea Shop Simulation Report ===");
+            lines.add("Orders: " + orders + " in " + durationSeconds + " s");
+            lines.add(String.format("Throughput: %.1f orders/min", ordersPerMinute));
+            lines.add("Wait for a kettle (p50/p90/p99/max): " + format(kettleWaitSeconds));
+            lines.add("Wait until ready (p50/p90/p99/max): " + format(readyWaitSeconds));
+            lines.add(String.format("Kettle utilization: %.1f%%", 100 * kettleUtilization));
+            lines.add("Batches: " + batches + ", temperature switches: " + switches);
+            return lines;
+        }
+
+        private static String format(long[] seconds) {
+            return seconds[0] + " / " + seconds[1] + " / " + seconds[2] + " / " + seconds[3] + " s";
+        }
+    }
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 1};
+
+    private enum Type { ARRIVAL, DISPATCH, BATCH_READY }
+
+    private record Event(long time, long sequence, Type type, KettleScheduler.Batch batch) {
+    }
+
+    private final List<Tea> menu;
+    private final ArrivalProcess arrivals;
+    private final Supplier<KettleScheduler> schedulers;
+    private final long seed;
+
+    /**
+     * @param menu the teas ordered, all equally likely: repeat a tea to make it more popular
+     * @param schedulers creates the kettles of the shop, idle and cold, once per run
+     * @param seed the seed of the arrivals and of the teas ordered
+     */
+    public TeaShopSimulator(List<Tea> menu, ArrivalProcess arrivals, Supplier<KettleScheduler> schedulers,
+                            long seed) {
+        if (menu.isEmpty()) {
+            throw new IllegalArgumentException("Menu must not be empty");
+        }
+        this.menu = List.copyOf(menu);
+        this.arrivals = arrivals;
+        this.schedulers = schedulers;
+        this.seed = seed;
+    }
+
+    /**
+     * Simulates the shop until {@code orders} orders are ready to drink.
+     */
+    public Report run(int orders) {
+        if (orders < 1) {
+            throw new IllegalArgumentException("A run must simulate at least one order");
+        }
+        KettleScheduler scheduler = schedulers.get();
+        SplittableRandom random = new SplittableRandom(seed);
+        ManualClock clock = new ManualClock(0);
+        TeaShop shop = new TeaShop(100, clock);
+        menu.forEach(shop::addTea);
+
+        PriorityQueue<Event> events = new PriorityQueue<>(
+                Comparator.comparingLong(Event::time).thenComparingLong(Event::sequence));
+        long sequence = 0;
+        long[] kettleWaits = new long[orders];
+        long[] readyWaits = new long[orders];
+        int served = 0;
+        int arrived = 0;
+        double arrivalTime = arrivals.next(0, random);
+        long firstArrival = (long) arrivalTime;
+        events.add(new Event((long) arrivalTime, sequence++, Type.ARRIVAL, null));
+        long plannedDispatch = Long.MAX_VALUE;
+        long boilingSeconds = 0;
+        long lastReady = 0;
+
+        while (!events.isEmpty()) {
+            Event event = events.poll();
+            clock.setTime(event.time());
+            switch (event.type()) {
+                case ARRIVAL -> {
+                    Tea tea = menu.get(random.nextInt(menu.size()));
+                    shop.order(tea.getName(), scheduler);
+                    if (++arrived < orders) {
+                        arrivalTime = arrivals.next(arrivalTime, random);
+                        events.add(new Event((long) arrivalTime, sequence++, Type.ARRIVAL, null));
+                    }
+                }
+                case DISPATCH -> {
+                    if (event.time() == plannedDispatch) {
+                        plannedDispatch = Long.MAX_VALUE;
+                    }
+                }
+                case BATCH_READY -> {
+                    KettleScheduler.Batch batch = event.batch();
+                    List<TeaCup> cups = shop.serve(batch);
+                    for (int i = 0; i < cups.size(); i++) {
+                        long arrival = batch.orders().get(i).arrivalSeconds();
+                        // Ready as soon as the steeping is done: the water is poured at the ideal temperature
+                        long ready = cups.get(i).getDrinkWindow().map(DrinkWindow::fromSeconds).orElse(Long.MAX_VALUE);
+                        kettleWaits[served] = batch.startSeconds() - arrival;
+                        readyWaits[served] = ready - arrival;
+                        lastReady = Math.max(lastReady, ready);
+                        served++;
+                    }
+                }
+            }
+
+            for (KettleScheduler.Batch batch : scheduler.dispatch(event.time())) {
+                boilingSeconds += batch.readySeconds() - batch.startSeconds();
+                events.add(new Event(batch.readySeconds(), sequence++, Type.BATCH_READY, batch));
+            }
+            long next = scheduler.nextDispatchTime();
+            if (next < plannedDispatch) {
+                plannedDispatch = next;
+                events.add(new Event(next, sequence++, Type.DISPATCH, null));
+            }
+        }
+
+        long duration = Math.max(1, lastReady - firstArrival);
+        return new Report(served, duration, served * 60.0 / duration, quantiles(kettleWaits), quantiles(readyWaits),
+                (double) boilingSeconds / (duration * (double) scheduler.kettles()),
+                scheduler.batchesDispatched(), scheduler.switches());
+    }
+
+    private static long[] quantiles(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        long[] quantiles = new long[QUANTILES.length];
+        for (int i = 0; i < QUANTILES.length; i++) {
+            int rank = (int) Math.ceil(QUANTILES[i] * sorted.length);
+            quantiles[i] = sorted.length == 0 ? 0 : sorted[Math.max(0, rank - 1)];
+        }
+        return quantiles;
+    }
+
+    /**
+     * Capacity planning run: a million orders with lunch rushes on 4 kettles.
+     * Usage: java fr.anthonyquere.teashop.TeaShopSimulator [orders] [seed]
+     */
+    public static void main(String[] args) {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        List<Tea> menu = List.of(
+                Tea.of("Green Tea", 120, 80, true),
+                Tea.of("White Tea", 150, 85, true),
+                Tea.of("Earl Grey", 180, 95, false),
+                Tea.of("Chamomile", 300, 100, true));
+        TeaShopSimulator simulator = new TeaShopSimulator(menu, new Bursts(0.1, 0.4, 3600, 600),
+                () -> new KettleScheduler(4, 8, 120, 60, 90), seed);
+
+        long start = System.nanoTime();
+        Report report = simulator.run(orders);
+        report.toLines().forEach(System.out::println);
+        System.out.println("Simulated in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,115 @@
+package fr.anthonyquere.teashop;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Summarizes a flight recording of the tea shop events (see {@link TeaEvents}): for each tea, the distribution
+ * of the time spent in prepareTea, and how long its cups waited until they were noticed ready.
+ * Usage: java fr.anthonyquere.teashop.TeaTraceAnalyzer teashop.jfr
+ */
+public class TeaTraceAnalyzer {
+
+    // Recordings are analyzed offline: exact values are kept, rather than histograms
+    private static final class TeaStats {
+        private final List<Long> prepareNanos = new ArrayList<>();
+        private final List<Long> waitedSeconds = new ArrayList<>();
+        // Time the timer noticed a ready cup after its steeping time, in seconds
+        private final List<Long> lateSeconds = new ArrayList<>();
+        private long misses;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: TeaTraceAnalyzer <recording.jfr>");
+            System.exit(1);
+        }
+        analyze(Path.of(args[0])).forEach(System.out::println);
+    }
+
+    /**
+     * @return the settings bundled with the shop, which enable every tea shop event
+     */
+    public static Configuration settings() throws IOException {
+        try (Reader reader = new InputStreamReader(TeaTraceAnalyzer.class.getResourceAsStream("teashop.jfc"),
+                StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        } catch (ParseException e) {
+            throw new IOException("Invalid bundled settings", e);
+        }
+    }
+
+    /**
+     * @return the report lines, one block per tea in name order
+     */
+    public static List<String> analyze(Path recording) throws IOException {
+        Map<String, TeaStats> teas = new TreeMap<>();
+        long waterPoured = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+            switch (event.getEventType().getName()) {
+                case TeaEvents.ORDER -> {
+                    TeaStats stats = teas.computeIfAbsent(event.getString("teaName"), name -> new TeaStats());
+                    if (event.getBoolean("available")) {
+                        stats.prepareNanos.add(event.getDuration().toNanos());
+                    } else {
+                        stats.misses++;
+                    }
+                }
+                case TeaEvents.CUP_READY -> {
+                    TeaStats stats = teas.computeIfAbsent(event.getString("teaName"), name -> new TeaStats());
+                    long waited = event.getDuration("waited").toSeconds();
+                    stats.waitedSeconds.add(waited);
+                    stats.lateSeconds.add(waited - event.getDuration("steepingTime").toSeconds());
+                }
+                case TeaEvents.WATER_POURED -> waterPoured++;
+                default -> {
+                }
+            }
+        }
+
+        List<String> report = new ArrayList<>();
+        report.add("=== Tea Shop Trace ===");
+        report.add("Cups of water poured: " + waterPoured);
+        for (Map.Entry<String, TeaStats> entry : teas.entrySet()) {
+            TeaStats stats = entry.getValue();
+            long[] prepare = sorted(stats.prepareNanos);
+            long[] waited = sorted(stats.waitedSeconds);
+            long[] late = sorted(stats.lateSeconds);
+            report.add("\n" + entry.getKey() + ": " + prepare.length + " order(s), " + stats.misses + " unavailable");
+            if (prepare.length > 0) {
+                report.add(String.format("  prepareTea: p50 %d µs, p99 %d µs, max %d µs", percentile(prepare, 0.5) / 1000,
+                        percentile(prepare, 0.99) / 1000, prepare[prepare.length - 1] / 1000));
+            }
+            if (waited.length > 0) {
+                report.add(String.format("  steeping: %d cup(s), p50 %d s, p99 %d s, max %d s", waited.length,
+                        percentile(waited, 0.5), percentile(waited, 0.99), waited[waited.length - 1]));
+                // Preparing takes microseconds: orders wait for steeping, and for the timer to notice it is done
+                report.add(String.format("  noticed after steeping: p50 %d s, max %d s",
+                        percentile(late, 0.5), late[late.length - 1]));
+            }
+        }
+        return report;
+    }
+
+    private static long[] sorted(List<Long> values) {
+        return values.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static long percentile(long[] sorted, double quantile) {
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,100 @@
+package fr.anthonyquere.fizzbuzz;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+class FizzBuzzEncoderTest {
+
+    private static String expectedLines(long from, long to) {
+        var expected = new StringBuilder();
+        FizzBuzz.streamFizzBuzz(from, to).forEach(element -> expected.append(element).append('\n'));
+        return expected.toString();
+    }
+
+    @Test
+    void should_encode_the_same_lines_as_the_list_into_a_byte_array() {
+        var buffer = new byte[1 << 16];
+
+        var end = new FizzBuzzEncoder(1).encode(buffer, 0, 10_001);
+
+        assertThat(new String(buffer, 0, end, StandardCharsets.US_ASCII)).isEqualTo(expectedLines(1, 10_001));
+    }
+
+    @Test
+    void should_carry_digits_across_powers_of_ten() {
+        var buffer = new char[256];
+
+        var end = new FizzBuzzEncoder(997).encode(buffer, 0, 1_012);
+
+        assertThat(new String(buffer, 0, end)).isEqualTo(expectedLines(997, 1_012));
+    }
+
+    @Test
+    void should_stop_at_the_last_complete_line_that_fits() {
+        var buffer = ByteBuffer.allocate(12);
+        var encoder = new FizzBuzzEncoder(8);
+
+        encoder.encode(buffer, 100);
+
+        assertThat(new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII)).isEqualTo("8\nFizz\nBuzz\n");
+        assertThat(encoder.next()).isEqualTo(11);
+    }
+
+    @Test
+    void should_resume_where_it_stopped() throws IOException {
+        var out = new StringBuilder();
+        var encoder = new FizzBuzzEncoder(3_000_000_001L);
+
+        encoder.encode(out, 3_000_000_003L);
+        encoder.encode(out, 3_000_000_006L);
+
+        assertThat(out.toString()).isEqualTo(expectedLines(3_000_000_001L, 3_000_000_006L));
+    }
+
+    @Test
+    void should_not_allocate_per_element_in_steady_state() throws IOException {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var threadId = Thread.currentThread().threadId();
+        var bytes = new byte[1 << 16];
+        var chars = new char[1 << 16];
+        var byteBuffer = ByteBuffer.allocateDirect(1 << 16);
+        var appendable = new StringBuilder(1 << 17);
+        var encoder = new FizzBuzzEncoder(1);
+        var elements = 1_000_000L;
+
+        // Premier passage pour charger les classes et compiler les chemins chauds
+        encodeAll(encoder, elements, bytes, chars, byteBuffer, appendable);
+        var before = threads.getThreadAllocatedBytes(threadId);
+        encodeAll(encoder, elements, bytes, chars, byteBuffer, appendable);
+        var allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertThat(allocated).isLessThan(1_024);
+    }
+
+    private static void encodeAll(FizzBuzzEncoder encoder, long elements, byte[] bytes, char[] chars,
+                                  ByteBuffer byteBuffer, StringBuilder appendable) throws IOException {
+        encoder.seek(1);
+        while (encoder.next() <= elements) {
+            encoder.encode(bytes, 0, elements + 1);
+        }
+        encoder.seek(1);
+        while (encoder.next() <= elements) {
+            encoder.encode(chars, 0, elements + 1);
+        }
+        encoder.seek(1);
+        while (encoder.next() <= elements) {
+            byteBuffer.clear();
+            encoder.encode(byteBuffer, elements + 1);
+        }
+        encoder.seek(1);
+        while (encoder.next() <= elements) {
+            appendable.setLength(0);
+            encoder.encode(appendable, Math.min(encoder.next() + 10_000, elements + 1));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package fr.anthonyquere.fizzbuzz;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+
+import fr.anthonyquere.fizzbuzz.FizzBuzzRules.Rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FizzBuzzIndexTest {
+
+    private static String expectedOutput(int count) {
+        return String.join("\n", FizzBuzz.startFizzBuzz(count)) + "\n";
+    }
+
+    @Test
+    void should_give_the_offset_of_every_line_of_the_output() {
+        var output = expectedOutput(20_000);
+        var index = new FizzBuzzIndex();
+
+        var offset = 0;
+        for (int number = 1; number <= 20_000; number++) {
+            assertThat(index.offsetOf(number)).isEqualTo(offset);
+            offset = output.indexOf('\n', offset) + 1;
+        }
+        assertThat(index.offsetOf(20_001)).isEqualTo(output.length());
+    }
+
+    @Test
+    void should_give_the_offsets_for_custom_rules() throws IOException {
+        var rules = FizzBuzzRules.of(new Rule(3, "Fizz"), new Rule(7, "Bazz"), new Rule(11, "Bong"));
+        var out = new StringBuilder();
+        new FizzBuzzEncoder(rules, 1).encode(out, 5_000);
+
+        var index = new FizzBuzzIndex(rules);
+
+        assertThat(index.offsetOf(5_000)).isEqualTo(out.length());
+        assertThat(index.sizeOf(1_000, 5_000)).isEqualTo(out.length() - out.indexOf("1000\n"));
+    }
+
+    @Test
+    void should_give_offsets_for_huge_numbers() {
+        var index = new FizzBuzzIndex();
+        var from = 100_000_000_000_000_000L;
+
+        assertThat(index.sizeOf(from, from + 3)).isEqualTo("Buzz\n100000000000000001\nFizz\n".length());
+        assertThatThrownBy(() -> index.offsetOf(Long.MAX_VALUE)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void should_write_slices_in_any_order_at_their_place(@TempDir Path directory) throws IOException {
+        var file = directory.resolve("fizzbuzz.txt");
+        var writer = new FizzBuzzWriter();
+        var expected = expectedOutput(3_000);
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            writer.writeMapped(channel, 2_000, 3_001);
+            writer.writeMapped(channel, 1, 999);
+            writer.writeMapped(channel, 999, 2_000);
+        }
+
+        assertThat(Files.readString(file, StandardCharsets.US_ASCII)).isEqualTo(expected);
+    }
+
+    @Test
+    void should_fill_a_file_with_parallel_slices(@TempDir Path directory) throws IOException {
+        var file = directory.resolve("fizzbuzz.txt");
+        var writer = new FizzBuzzWriter(1_000, 4, new ForkJoinPool(4));
+
+        writer.writeFile(file, 100_001);
+
+        assertThat(Files.readString(file, StandardCharsets.US_ASCII)).isEqualTo(expectedOutput(100_000));
+    }
+}
@@ -0,0 +1,52 @@
+package fr.anthonyquere.fizzbuzz;
+
+import java.util.RandomAccess;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+class FizzBuzzListTest {
+
+    @Test
+    void should_be_equal_to_the_materialized_list() {
+        var count = 1_000;
+
+        var result = FizzBuzz.fizzBuzzList(count);
+
+        assertThat(result).isInstanceOf(RandomAccess.class);
+        assertThat(result).isEqualTo(FizzBuzz.startFizzBuzz(count));
+    }
+
+    @Test
+    void should_compute_elements_at_the_end_of_a_huge_list() {
+        var result = FizzBuzz.fizzBuzzList(Integer.MAX_VALUE);
+
+        assertThat(result).hasSize(Integer.MAX_VALUE);
+        assertThat(result.get(Integer.MAX_VALUE - 1)).isEqualTo("2147483647");
+        assertThat(result.get(Integer.MAX_VALUE - 2)).isEqualTo("Fizz");
+    }
+
+    @Test
+    void should_be_empty_when_count_is_0() {
+        var result = FizzBuzz.fizzBuzzList(0);
+
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void should_be_read_only() {
+        var result = FizzBuzz.fizzBuzzList(10);
+
+        assertThatThrownBy(() -> result.add("11")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> result.get(10)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void should_return_the_element_at_any_long_index() {
+        assertThat(FizzBuzz.fizzBuzzAt(0)).isEqualTo("1");
+        assertThat(FizzBuzz.fizzBuzzAt(14)).isEqualTo("FizzBuzz");
+        assertThat(FizzBuzz.fizzBuzzAt(10_000_000_000L)).isEqualTo("10000000001");
+        assertThat(FizzBuzz.fizzBuzzAt(9_999_999_999L)).isEqualTo("Buzz");
+    }
+}
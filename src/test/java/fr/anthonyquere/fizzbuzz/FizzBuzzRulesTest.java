@@ -0,0 +1,125 @@
+package fr.anthonyquere.fizzbuzz;
+
+import java.io.IOException;
+
+import fr.anthonyquere.fizzbuzz.FizzBuzzRules.Rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+class FizzBuzzRulesTest {
+
+    private static final FizzBuzzRules FIZZ_BUZZ_BAZZ_BONG =
+            FizzBuzzRules.of(new Rule(3, "Fizz"), new Rule(5, "Buzz"), new Rule(7, "Bazz"), new Rule(11, "Bong"));
+
+    // Référence naïve : deux modulos par règle et par nombre
+    private static String naive(long number, long[] divisors, String[] words) {
+        var result = new StringBuilder();
+        for (int i = 0; i < divisors.length; i++) {
+            if (number % divisors[i] == 0) {
+                result.append(words[i]);
+            }
+        }
+        return result.isEmpty() ? String.valueOf(number) : result.toString();
+    }
+
+    @Test
+    void should_behave_like_the_original_fizzbuzz_by_default() {
+        var result = FizzBuzz.startFizzBuzz(FizzBuzzRules.DEFAULT, 30);
+
+        assertThat(result).isEqualTo(FizzBuzz.startFizzBuzz(30));
+        assertThat(FizzBuzzRules.DEFAULT.wheelPeriod()).isEqualTo(15);
+    }
+
+    @Test
+    void should_combine_words_in_rule_order() {
+        var rules = FIZZ_BUZZ_BAZZ_BONG;
+
+        assertThat(rules.format(7)).isEqualTo("Bazz");
+        assertThat(rules.format(21)).isEqualTo("FizzBazz");
+        assertThat(rules.format(1155)).isEqualTo("FizzBuzzBazzBong");
+        assertThat(rules.format(13)).isEqualTo("13");
+        assertThat(rules.wheelPeriod()).isEqualTo(1155);
+    }
+
+    @Test
+    void should_match_the_naive_rules_when_streaming_over_the_wheel() {
+        var divisors = new long[] {3, 5, 7, 11};
+        var words = new String[] {"Fizz", "Buzz", "Bazz", "Bong"};
+
+        var result = FizzBuzz.streamFizzBuzz(FIZZ_BUZZ_BAZZ_BONG, 1_000, 5_000).toList();
+
+        for (int i = 0; i < result.size(); i++) {
+            assertThat(result.get(i)).isEqualTo(naive(1_000 + i, divisors, words));
+        }
+    }
+
+    @Test
+    void should_fall_back_to_bitmasks_when_the_period_is_too_large() throws IOException {
+        var divisors = new long[] {97, 101, 103};
+        var words = new String[] {"Foo", "Bar", "Baz"};
+        var rules = FizzBuzzRules.of(new Rule(97, "Foo"), new Rule(101, "Bar"), new Rule(103, "Baz"));
+        var out = new StringBuilder();
+
+        new FizzBuzzEncoder(rules, 1_000_000).encode(out, 1_020_000);
+
+        assertThat(rules.wheelPeriod()).isZero();
+        var lines = out.toString().split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            assertThat(lines[i]).isEqualTo(naive(1_000_000 + i, divisors, words));
+        }
+    }
+
+    @Test
+    void should_reject_an_empty_rule_set() {
+        assertThatThrownBy(FizzBuzzRules::of).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Rule(0, "Zero")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void should_count_each_element_like_a_scan_of_the_list() {
+        var list = FizzBuzz.startFizzBuzz(10_000);
+
+        for (var word : new String[] {"Fizz", "Buzz", "FizzBuzz"}) {
+            var expected = list.subList(1_233, 9_876).stream().filter(word::equals).count();
+            assertThat(FizzBuzz.countFizzBuzz(word, 1_234, 9_877)).isEqualTo(expected);
+        }
+        assertThat(FizzBuzzRules.DEFAULT.count(0, 1, 16)).isEqualTo(8);
+    }
+
+    @Test
+    void should_count_over_huge_ranges_in_constant_time() {
+        var to = 1_000_000_000_000_001L;
+
+        assertThat(FizzBuzz.countFizzBuzz("FizzBuzz", 1, to)).isEqualTo(66_666_666_666_666L);
+        assertThat(FizzBuzz.countFizzBuzz("Fizz", 1, to)).isEqualTo(333_333_333_333_333L - 66_666_666_666_666L);
+        assertThat(FizzBuzz.countFizzBuzz("Buzz", 1, to)).isEqualTo(200_000_000_000_000L - 66_666_666_666_666L);
+    }
+
+    @Test
+    void should_count_exact_combinations_of_many_rules() {
+        var rules = FIZZ_BUZZ_BAZZ_BONG;
+        var divisors = new long[] {3, 5, 7, 11};
+        var words = new String[] {"Fizz", "Buzz", "Bazz", "Bong"};
+
+        for (var word : new String[] {"FizzBazz", "Bong", "FizzBuzzBazzBong"}) {
+            var expected = 0L;
+            for (long number = 500; number < 20_000; number++) {
+                if (naive(number, divisors, words).equals(word)) {
+                    expected++;
+                }
+            }
+            assertThat(rules.count(word, 500, 20_000)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void should_not_overflow_when_the_divisors_lcm_exceeds_a_long() {
+        var rules = FizzBuzzRules.of(new Rule(3_000_000_019L, "Big"), new Rule(4_000_000_007L, "Huge"),
+                new Rule(5_000_000_029L, "Giant"));
+
+        assertThat(rules.count("BigHugeGiant", 1, Long.MAX_VALUE)).isZero();
+        assertThat(rules.count("Big", 1, 9_000_000_058L)).isEqualTo(3);
+    }
+}
@@ -0,0 +1,85 @@
+package fr.anthonyquere.fizzbuzz;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.MessageDigest;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FizzBuzzServerTest {
+
+    private FizzBuzzServer server;
+    private HttpClient http;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new FizzBuzzServer(0);
+        http = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void stop() {
+        http.close();
+        server.close();
+    }
+
+    private URI uri(String query) {
+        return URI.create("http://localhost:" + server.port() + FizzBuzzServer.PATH + query);
+    }
+
+    private HttpResponse<String> get(String query) throws IOException, InterruptedException {
+        return http.send(HttpRequest.newBuilder(uri(query)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void should_serve_a_range_as_lines() throws Exception {
+        var response = get("?from=1&to=16");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).isEqualTo(String.join("\n", FizzBuzz.startFizzBuzz(15)) + "\n");
+    }
+
+    @Test
+    void should_stream_a_large_range_in_chunks() throws Exception {
+        var to = 2_000_001L;
+        var expected = MessageDigest.getInstance("SHA-256");
+        FizzBuzz.streamFizzBuzz(1, to).forEach(element -> expected.update((element + "\n").getBytes()));
+
+        var response = http.send(HttpRequest.newBuilder(uri("?to=" + to)).build(), HttpResponse.BodyHandlers.ofInputStream());
+        var actual = MessageDigest.getInstance("SHA-256");
+        try (InputStream body = response.body()) {
+            var buffer = new byte[8192];
+            for (int read; (read = body.read(buffer)) > 0; ) {
+                actual.update(buffer, 0, read);
+            }
+        }
+
+        assertThat(response.headers().firstValue("Transfer-Encoding")).hasValue("chunked");
+        assertThat(actual.digest()).isEqualTo(expected.digest());
+    }
+
+    @Test
+    void should_reject_invalid_ranges() throws Exception {
+        assertThat(get("?from=10&to=5").statusCode()).isEqualTo(400);
+        assertThat(get("?from=0&to=5").statusCode()).isEqualTo(400);
+        assertThat(get("?from=1").statusCode()).isEqualTo(400);
+        assertThat(get("?from=abc&to=5").statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    void should_serve_concurrent_clients_without_errors() throws Exception {
+        var report = FizzBuzzLoadTest.run(uri("?from=1&to=101"), 200, Duration.ofSeconds(1));
+
+        assertThat(report.requests()).isGreaterThan(200);
+        assertThat(report.errors()).isZero();
+        assertThat(report.p99Micros()).isGreaterThanOrEqualTo(report.p50Micros());
+    }
+}
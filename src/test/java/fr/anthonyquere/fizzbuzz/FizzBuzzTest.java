@@ -1,6 +1,10 @@
 package fr.anthonyquere.fizzbuzz;
 
+import java.util.ArrayList;
+import java.util.stream.Collectors;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.jupiter.api.Test;
 
 class FizzBuzzTest {
@@ -93,4 +97,45 @@ class FizzBuzzTest {
         assertThat(result).isNotNull();
         assertThat(result.get(14)).isEqualTo("FizzBuzz");
     }
+
+    @Test
+    void should_stream_the_same_elements_as_the_list() {
+        var count = 1000;
+
+        var result = FizzBuzz.streamFizzBuzz(1, count + 1).toList();
+
+        assertThat(result).isEqualTo(FizzBuzz.startFizzBuzz(count));
+    }
+
+    @Test
+    void should_stream_a_range_beyond_int() {
+        var from = 3_000_000_001L;
+
+        var result = FizzBuzz.streamFizzBuzz(from, from + 4).toList();
+
+        assertThat(result).containsExactly("3000000001", "3000000002", "Fizz", "3000000004");
+    }
+
+    @Test
+    void should_keep_the_order_when_streaming_in_parallel() {
+        var count = 100_000;
+
+        var result = FizzBuzz.streamFizzBuzz(1, count + 1).parallel()
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        assertThat(result).isEqualTo(FizzBuzz.startFizzBuzz(count));
+    }
+
+    @Test
+    void should_iterate_lazily_over_a_range() {
+        var iterator = FizzBuzz.iterateFizzBuzz(14, 17);
+
+        assertThat(iterator).toIterable().containsExactly("14", "FizzBuzz", "16");
+    }
+
+    @Test
+    void should_reject_a_range_starting_before_1() {
+        assertThatThrownBy(() -> FizzBuzz.streamFizzBuzz(0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
 }
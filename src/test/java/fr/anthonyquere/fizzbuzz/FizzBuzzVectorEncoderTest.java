@@ -0,0 +1,76 @@
+package fr.anthonyquere.fizzbuzz;
+
+import java.util.Arrays;
+
+import fr.anthonyquere.fizzbuzz.FizzBuzzRules.Rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+class FizzBuzzVectorEncoderTest {
+
+    private static byte[] scalar(FizzBuzzRules rules, long from, long to) {
+        var buffer = new byte[(int) new FizzBuzzIndex(rules).sizeOf(from, to)];
+        new FizzBuzzEncoder(rules, from).encode(buffer, 0, to);
+        return buffer;
+    }
+
+    private static byte[] vector(FizzBuzzRules rules, long from, long to) {
+        var buffer = new byte[(int) new FizzBuzzIndex(rules).sizeOf(from, to)];
+        var written = new FizzBuzzVectorEncoder(rules).encode(from, to, buffer);
+        return Arrays.copyOf(buffer, written);
+    }
+
+    @Test
+    void should_run_with_the_vector_module_in_tests() {
+        assertThat(FizzBuzzVectorEncoder.isAvailable()).isTrue();
+        assertThat(new FizzBuzzVectorEncoder().isVectorized()).isTrue();
+    }
+
+    @Test
+    void should_produce_the_same_bytes_as_the_scalar_encoder() {
+        var rules = FizzBuzzRules.DEFAULT;
+
+        assertThat(vector(rules, 1, 200_001)).isEqualTo(scalar(rules, 1, 200_001));
+    }
+
+    @Test
+    void should_match_the_list_output() {
+        var expected = String.join("\n", FizzBuzz.startFizzBuzz(50_000)) + "\n";
+
+        assertThat(new String(vector(FizzBuzzRules.DEFAULT, 1, 50_001))).isEqualTo(expected);
+    }
+
+    @Test
+    void should_carry_digits_across_bands_and_unaligned_ranges() {
+        var rules = FizzBuzzRules.DEFAULT;
+
+        assertThat(vector(rules, 9_876, 1_234_567)).isEqualTo(scalar(rules, 9_876, 1_234_567));
+        assertThat(vector(rules, 99_999_999_000L, 100_000_124_457L))
+                .isEqualTo(scalar(rules, 99_999_999_000L, 100_000_124_457L));
+    }
+
+    @Test
+    void should_handle_custom_rules_with_a_larger_wheel() {
+        var rules = FizzBuzzRules.of(new Rule(3, "Fizz"), new Rule(5, "Buzz"), new Rule(7, "Bazz"));
+
+        assertThat(vector(rules, 1, 300_000)).isEqualTo(scalar(rules, 1, 300_000));
+    }
+
+    @Test
+    void should_fall_back_to_the_scalar_path_when_rules_have_no_wheel() {
+        var rules = FizzBuzzRules.of(new Rule(997, "Foo"), new Rule(1_009, "Bar"));
+
+        assertThat(new FizzBuzzVectorEncoder(rules).isVectorized()).isFalse();
+        assertThat(vector(rules, 1, 100_000)).isEqualTo(scalar(rules, 1, 100_000));
+    }
+
+    @Test
+    void should_reject_a_buffer_that_is_too_small() {
+        var encoder = new FizzBuzzVectorEncoder();
+
+        assertThatThrownBy(() -> encoder.encode(1, 1_000, new byte[100]))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
@@ -0,0 +1,63 @@
+package fr.anthonyquere.fizzbuzz;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FizzBuzzWriterTest {
+
+    @Test
+    void should_write_the_same_lines_as_the_list() throws IOException {
+        var count = 10_000;
+        var output = new ByteArrayOutputStream();
+
+        var written = new FizzBuzzWriter().write(1, count + 1, Channels.newChannel(output));
+
+        var expected = String.join("\n", FizzBuzz.startFizzBuzz(count)) + "\n";
+        assertThat(output.toString(StandardCharsets.US_ASCII)).isEqualTo(expected);
+        assertThat(written).isEqualTo(expected.length());
+    }
+
+    @Test
+    void should_keep_blocks_in_order_with_small_blocks_and_a_narrow_window() throws IOException {
+        var output = new ByteArrayOutputStream();
+        var writer = new FizzBuzzWriter(7, 2, new ForkJoinPool(4));
+
+        writer.write(90, 1_010, Channels.newChannel(output));
+
+        var expected = new StringBuilder();
+        FizzBuzz.streamFizzBuzz(90, 1_010).forEach(element -> expected.append(element).append('\n'));
+        assertThat(output.toString(StandardCharsets.US_ASCII)).isEqualTo(expected.toString());
+    }
+
+    @Test
+    void should_write_nothing_for_an_empty_range() throws IOException {
+        var output = new ByteArrayOutputStream();
+
+        var written = new FizzBuzzWriter().write(5, 5, Channels.newChannel(output));
+
+        assertThat(written).isZero();
+        assertThat(output.size()).isZero();
+    }
+
+    @Test
+    void should_write_to_a_file_channel(@TempDir Path directory) throws IOException {
+        var file = directory.resolve("fizzbuzz.txt");
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            new FizzBuzzWriter().write(1, 16, channel);
+        }
+
+        assertThat(Files.readAllLines(file)).isEqualTo(FizzBuzz.startFizzBuzz(15));
+    }
+}
@@ -0,0 +1,50 @@
+package fr.anthonyquere.teashop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+public class CoolingModelTest {
+
+    @Test
+    public void testNoCoolingKeepsTemperature() {
+        // Act & Assert
+        assertEquals(90, CoolingModel.NONE.temperatureAt(90, 10_000));
+        assertEquals(Double.POSITIVE_INFINITY, CoolingModel.NONE.timeToReach(90, 80));
+        assertEquals(0, CoolingModel.NONE.timeToReach(90, 90));
+    }
+
+    @Test
+    public void testNewtonCooling() {
+        // Arrange
+        CoolingModel model = CoolingModel.newton(20, Math.log(2) / 600); // half-life of 10 minutes
+
+        // Act & Assert
+        assertEquals(90, model.temperatureAt(90, 0));
+        assertEquals(55, model.temperatureAt(90, 600), 1e-9);
+        assertEquals(37.5, model.temperatureAt(90, 1200), 1e-9);
+        assertEquals(600, model.timeToReach(90, 55), 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, model.timeToReach(90, 20));
+        assertEquals(Double.POSITIVE_INFINITY, model.timeToReach(90, 95));
+        assertEquals(Double.POSITIVE_INFINITY, model.timeToReach(90, 10));
+    }
+
+    @Test
+    public void testWarmingUp() {
+        // Arrange
+        CoolingModel model = CoolingModel.newton(30, 0.01);
+
+        // Act
+        double time = model.timeToReach(10, 25);
+
+        // Assert
+        assertEquals(25, model.temperatureAt(10, Math.round(time)), 0.1);
+    }
+
+    @Test
+    public void testInvalidRate() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> CoolingModel.newton(20, -0.1));
+        assertThrows(IllegalArgumentException.class, () -> CoolingModel.newton(20, Double.NaN));
+    }
+}
@@ -0,0 +1,121 @@
+package fr.anthonyquere.teashop;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CupFleetTest {
+
+    private CupFleet fleet;
+    private Tea greenTea;
+    private ManualClock clock;
+
+    @BeforeEach
+    public void setup() {
+        clock = new ManualClock(0);
+        fleet = new CupFleet(4);
+        greenTea = new Tea("Green Tea", 120, 80, true);
+    }
+
+    private TeaCup cup(int waterTemperature, Tea tea, long startTime) {
+        return cup(waterTemperature, tea, startTime, CoolingModel.NONE);
+    }
+
+    private TeaCup cup(int waterTemperature, Tea tea, long startTime, CoolingModel cooling) {
+        TeaCup cup = new TeaCup(clock, cooling);
+        if (waterTemperature >= 0) {
+            cup.addWater(waterTemperature);
+            if (tea != null) {
+                clock.setTime(startTime);
+                cup.addTea(tea);
+            }
+        }
+        return cup;
+    }
+
+    @Test
+    public void testEvaluateReadiness() {
+        // Arrange
+        fleet.add(cup(80, greenTea, 1000));  // ready at 1120
+        fleet.add(cup(90, greenTea, 1000));  // too hot
+        fleet.add(cup(85, greenTea, 1100));  // ready at 1220
+        fleet.add(cup(80, null, 0));          // no tea
+        fleet.add(cup(-1, null, 0));          // no water
+
+        // Act
+        BitSet early = fleet.evaluate(1119);
+        BitSet ready = fleet.evaluate(1120);
+        BitSet later = fleet.evaluate(1220);
+
+        // Assert
+        assertTrue(early.isEmpty());
+        assertEquals(BitSet.valueOf(new long[] {0b1}), ready);
+        assertEquals(BitSet.valueOf(new long[] {0b101}), later);
+        assertEquals(5, fleet.size());
+    }
+
+    @Test
+    public void testSetUpdatesCup() {
+        // Arrange
+        TeaCup cup = cup(80, null, 0);
+        int index = fleet.add(cup);
+
+        // Act
+        clock.setTime(1000);
+        cup.addTea(greenTea);
+        fleet.set(index, cup);
+
+        // Assert
+        assertTrue(fleet.evaluate(1120).get(index));
+        assertThrows(IndexOutOfBoundsException.class, () -> fleet.set(1, cup));
+    }
+
+    @Test
+    public void testMatchesTeaCupOnRandomCups() {
+        // Arrange - more than one parallel chunk, with a partial last word
+        Random random = new Random(42);
+        Tea[] teas = {greenTea, new Tea("Earl Grey", 180, 95, false), new Tea("Instant", 0, 70, false)};
+        CoolingModel[] coolings = {CoolingModel.NONE, CoolingModel.newton(20, 0.001), CoolingModel.newton(20, 0.01)};
+        List<TeaCup> cups = new ArrayList<>();
+        for (int i = 0; i < 2 * CupFleet.PARALLEL_CHUNK + 37; i++) {
+            int water = random.nextInt(10) == 0 ? -1 : 60 + random.nextInt(41);
+            Tea tea = random.nextInt(10) == 0 ? null : teas[random.nextInt(teas.length)];
+            TeaCup cup = cup(water, tea, 1000 + random.nextInt(200), coolings[random.nextInt(coolings.length)]);
+            cups.add(cup);
+            fleet.add(cup);
+        }
+
+        for (long now = 990; now <= 1400; now += 41) {
+            // Act
+            BitSet sequential = fleet.evaluate(now);
+            BitSet parallel = fleet.evaluateParallel(now);
+
+            // Assert
+            BitSet expected = new BitSet();
+            clock.setTime(now);
+            for (int i = 0; i < cups.size(); i++) {
+                if (cups.get(i).isReadyToDrink()) {
+                    expected.set(i);
+                }
+            }
+            assertEquals(expected, sequential, "at " + now);
+            assertEquals(expected, parallel, "at " + now);
+        }
+    }
+
+    @Test
+    public void testEmptyFleet() {
+        // Act & Assert
+        assertTrue(new CupFleet().evaluate(0).isEmpty());
+        assertTrue(new CupFleet().evaluateParallel(0).isEmpty());
+        assertFalse(new CupFleet().evaluate(0).get(0));
+    }
+}
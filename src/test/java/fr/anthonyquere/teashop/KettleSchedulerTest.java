@@ -0,0 +1,164 @@
+package fr.anthonyquere.teashop;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class KettleSchedulerTest {
+
+    private Tea greenTea;
+    private Tea whiteTea;
+    private Tea earlGrey;
+    private KettleScheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        greenTea = new Tea("Green Tea", 0, 80, true);
+        whiteTea = new Tea("White Tea", 0, 88, true);
+        earlGrey = new Tea("Earl Grey", 0, 95, false);
+        // 2 kettles of 3 cups, orders wait at most 60s, 30s to boil and 45s more to change temperature
+        scheduler = new KettleScheduler(2, 3, 60, 30, 45);
+    }
+
+    @Test
+    public void testCompatibleTeasShareAKettle() {
+        // Arrange
+        scheduler.submit(greenTea, 0);
+        scheduler.submit(whiteTea, 1);
+        scheduler.submit(greenTea, 2);
+
+        // Act
+        List<KettleScheduler.Batch> batches = scheduler.dispatch(2);
+
+        // Assert - 80 and 88°C are both within 5°C of 84°C
+        assertEquals(1, batches.size());
+        KettleScheduler.Batch batch = batches.get(0);
+        assertEquals(84, batch.waterTemperatureCelsius());
+        assertEquals(3, batch.orders().size());
+        assertEquals(2 + 30 + 45, batch.readySeconds());
+        assertTrue(batch.switched());
+        assertEquals(0, scheduler.pending());
+    }
+
+    @Test
+    public void testPartialKettleWaitsForMaxWait() {
+        // Arrange
+        scheduler.submit(greenTea, 0);
+        scheduler.submit(earlGrey, 10);
+
+        // Act
+        List<KettleScheduler.Batch> early = scheduler.dispatch(59);
+        long next = scheduler.nextDispatchTime();
+        List<KettleScheduler.Batch> late = scheduler.dispatch(60);
+
+        // Assert - only the batch of the order that waited 60s leaves
+        assertTrue(early.isEmpty());
+        assertEquals(60, next);
+        assertEquals(1, late.size());
+        assertEquals(List.of(greenTea), late.get(0).orders().stream().map(KettleScheduler.Order::tea).toList());
+        assertEquals(1, scheduler.pending());
+        assertEquals(70, scheduler.nextDispatchTime());
+    }
+
+    @Test
+    public void testKettleKeepsItsTemperature() {
+        // Arrange - the first kettle boils green tea, then a full kettle of each tea is waiting
+        KettleScheduler single = new KettleScheduler(1, 2, 600, 30, 45);
+        single.submit(greenTea, 0);
+        single.submit(greenTea, 0);
+        single.dispatch(0);
+        single.submit(earlGrey, 1);
+        single.submit(earlGrey, 1);
+        single.submit(greenTea, 2);
+        single.submit(greenTea, 2);
+
+        // Act
+        List<KettleScheduler.Batch> batches = single.dispatch(75);
+
+        // Assert - green tea again, without reheating, although Earl Grey came first
+        assertEquals(1, batches.size());
+        assertEquals(80, batches.get(0).waterTemperatureCelsius());
+        assertFalse(batches.get(0).switched());
+        assertEquals(105, batches.get(0).readySeconds());
+        assertEquals(1, single.switches());
+    }
+
+    @Test
+    public void testUrgentOrderGoesFirst() {
+        // Arrange - a lone Earl Grey has waited too long while a kettle of green tea is full
+        KettleScheduler single = new KettleScheduler(1, 2, 60, 30, 45);
+        single.submit(earlGrey, 0);
+        single.submit(greenTea, 50);
+        single.submit(greenTea, 50);
+
+        // Act
+        List<KettleScheduler.Batch> batches = single.dispatch(60);
+
+        // Assert
+        assertEquals(1, batches.size());
+        assertEquals(95, batches.get(0).waterTemperatureCelsius());
+        assertEquals(1, batches.get(0).orders().size());
+        assertEquals(2, single.pending());
+    }
+
+    @Test
+    public void testBusyKettlesDelayBatches() {
+        // Arrange - both kettles are busy until 75s
+        for (int i = 0; i < 9; i++) {
+            scheduler.submit(greenTea, 0);
+        }
+
+        // Act
+        List<KettleScheduler.Batch> first = scheduler.dispatch(0);
+        List<KettleScheduler.Batch> meanwhile = scheduler.dispatch(74);
+        long next = scheduler.nextDispatchTime();
+        List<KettleScheduler.Batch> afterwards = scheduler.dispatch(75);
+
+        // Assert - the last kettle needs no reheat
+        assertEquals(2, first.size());
+        assertTrue(meanwhile.isEmpty());
+        assertEquals(75, next);
+        assertEquals(1, afterwards.size());
+        assertEquals(105, afterwards.get(0).readySeconds());
+        assertEquals(9, scheduler.cupsDispatched());
+        assertEquals(3, scheduler.batchesDispatched());
+        assertEquals(Long.MAX_VALUE, scheduler.nextDispatchTime());
+    }
+
+    @Test
+    public void testRejectInvalidTemperature() {
+        // Arrange
+        Tea boiling = new Tea("Boiling", 0, 120, false);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> scheduler.submit(boiling, 0));
+    }
+
+    @Test
+    public void testShopServesBatches() {
+        // Arrange
+        ManualClock clock = new ManualClock(1000);
+        TeaShop shop = new TeaShop(100, clock);
+        shop.addTea(new Tea("Green Tea", 60, 80, true));
+        shop.addTea(new Tea("White Tea", 60, 88, true));
+        shop.order("green tea", scheduler);
+        shop.order("white tea", scheduler);
+        shop.order("green tea", scheduler);
+
+        // Act
+        List<TeaCup> cups = shop.serve(scheduler.dispatch(clock.currentTimeSeconds()).get(0));
+        clock.advance(60);
+
+        // Assert - every cup is at its ideal temperature, whatever the shop temperature
+        assertEquals(3, cups.size());
+        for (TeaCup cup : cups) {
+            assertEquals(84, cup.getCurrentTemperatureCelsius());
+            assertTrue(cup.isReadyToDrink());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package fr.anthonyquere.teashop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsCoverEveryValue() {
+        // Arrange
+        long[] values = {0, 1, 7, 8, 15, 16, 17, 1000, 123_456_789L, Long.MAX_VALUE};
+
+        // Act & Assert - a value is at most 12.5% below the upper bound of its bucket
+        for (long value : values) {
+            long upper = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(value));
+            assertTrue(upper >= value, "upper bound of " + value);
+            assertTrue(upper - value <= value / 8, "precision of " + value);
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testQuantiles() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        // Act
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        // Assert
+        assertEquals(1000, snapshot.count());
+        assertEquals(500_500, snapshot.sum());
+        assertEquals(511, snapshot.valueAt(0.5));
+        assertEquals(1023, snapshot.valueAt(0.99));
+        assertEquals(1, snapshot.valueAt(0));
+        assertEquals(1023, snapshot.max());
+        assertThrows(IllegalArgumentException.class, () -> snapshot.valueAt(1.5));
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        // Act
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+        // Assert
+        assertEquals(0, snapshot.count());
+        assertEquals(0, snapshot.valueAt(0.99));
+        assertEquals(0, snapshot.max());
+    }
+}
@@ -0,0 +1,133 @@
+package fr.anthonyquere.teashop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class OrderCoalescerTest {
+
+    private ManualClock clock;
+    private TeaShop shop;
+    private OrderCoalescer coalescer;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new ManualClock(1000);
+        shop = new TeaShop(95, clock);
+        shop.addTea(new Tea("Earl Grey", 180, 95, false));
+        shop.addTea(new Tea("Green Tea", 120, 80, true));
+        coalescer = new OrderCoalescer(10, 3);
+    }
+
+    @Test
+    public void testIdenticalOrdersShareAPot() {
+        // Arrange
+        TeaCup first = shop.prepareTea("Earl Grey", coalescer);
+
+        // Act
+        clock.advance(5);
+        TeaCup second = shop.prepareTea("earl grey", coalescer);
+
+        // Assert - the second cup steeps since the pot was brewed
+        assertNotSame(first, second);
+        assertEquals(1000, second.getSteepingStartTime());
+        assertEquals(first.snapshot(), second.snapshot());
+        assertEquals(1, coalescer.brews());
+        assertEquals(2.0, coalescer.coalescingRatio());
+    }
+
+    @Test
+    public void testPotIsRebrewedWhenFullOrTooOld() {
+        // Act - 3 cups per pot, then a 4th order, then an order after the window
+        for (int i = 0; i < 4; i++) {
+            shop.prepareTea("Earl Grey", coalescer);
+        }
+        clock.advance(11);
+        TeaCup late = shop.prepareTea("Earl Grey", coalescer);
+
+        // Assert
+        assertEquals(1011, late.getSteepingStartTime());
+        assertEquals(3, coalescer.brews());
+        assertEquals(5, coalescer.orders());
+    }
+
+    @Test
+    public void testDifferentTeasOrTemperaturesAreNotMerged() {
+        // Act
+        shop.prepareTea("Earl Grey", coalescer);
+        shop.prepareTea("Green Tea", coalescer);
+        shop.setWaterTemperature(90);
+        TeaCup cooler = shop.prepareTea("Earl Grey", coalescer);
+
+        // Assert
+        assertEquals(90, cooler.getCurrentTemperatureCelsius());
+        assertEquals(3, coalescer.brews());
+    }
+
+    @Test
+    public void testSharedCupsAreDrunkIndependently() {
+        // Arrange
+        TeaCup first = shop.prepareTea("Earl Grey", coalescer);
+        TeaCup second = shop.prepareTea("Earl Grey", coalescer);
+        clock.advance(180);
+
+        // Act
+        first.drink();
+
+        // Assert
+        assertEquals(TeaCup.Phase.DRUNK, first.snapshot().phase());
+        assertTrue(second.isReadyToDrink());
+    }
+
+    @Test
+    public void testConcurrentOrdersBrewOnePotPerCapacity() throws Exception {
+        // Arrange
+        OrderCoalescer rush = new OrderCoalescer(60, 8);
+        int threads = 8;
+        int ordersPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Act
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ordersPerThread; i++) {
+                    assertEquals(TeaCup.Phase.STEEPING, shop.prepareTea("Earl Grey", rush).snapshot().phase());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+
+        // Assert - all orders fall in one window: every pot but the last is full
+        assertEquals(threads * ordersPerThread, rush.orders());
+        assertEquals((threads * ordersPerThread + 7) / 8, rush.brews());
+    }
+
+    @Test
+    public void testBrewPot() {
+        // Act
+        List<TeaCup> cups = shop.brewPot("Green Tea", 4);
+
+        // Assert
+        assertEquals(4, cups.size());
+        assertTrue(cups.stream().allMatch(cup -> cup.getTea().getName().equals("Green Tea")));
+        assertThrows(IllegalArgumentException.class, () -> shop.brewPot("Green Tea", 0));
+    }
+}
@@ -0,0 +1,129 @@
+package fr.anthonyquere.teashop;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.sun.net.httpserver.HttpServer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ShopMetricsTest {
+
+    private TeaShop shop;
+    private ShopMetrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        shop = new TeaShop(80, new ManualClock(1000));
+        metrics = new ShopMetrics();
+        shop.setMetrics(metrics);
+        shop.addTea(new Tea("Green Tea", 120, 80, true));
+    }
+
+    @Test
+    public void testShopOperationsAreCounted() {
+        // Act
+        shop.prepareTea("Green Tea");
+        shop.prepareTea("green tea");
+        assertThrows(IllegalArgumentException.class, () -> shop.prepareTea("Matcha"));
+        shop.setWaterTemperature(90);
+        assertThrows(IllegalArgumentException.class, () -> shop.setWaterTemperature(105));
+
+        // Assert
+        assertEquals(3, metrics.orders());
+        assertEquals(2, metrics.catalogHits());
+        assertEquals(1, metrics.catalogMisses());
+        assertEquals(1, metrics.invalidTemperatures());
+        assertEquals(2, metrics.prepareTeaNanos().count());
+        assertEquals(1, metrics.addTeaNanos().count());
+        assertEquals(1, metrics.setWaterTemperatureNanos().count());
+    }
+
+    @Test
+    public void testEveryWayOfServingIsTimed() {
+        // Arrange
+        KettleScheduler scheduler = new KettleScheduler(1, 2, 0, 60, 0);
+        shop.order("Green Tea", scheduler);
+        shop.order("Green Tea", scheduler);
+        KettleScheduler.Batch batch = scheduler.dispatch(1000).get(0);
+
+        // Act - one order, one pot, then the two cups of the batch
+        shop.prepareTea("Green Tea", new OrderCoalescer(60, 4));
+        shop.brewPot("Green Tea", 3);
+        shop.serve(batch);
+
+        // Assert
+        assertEquals(4, metrics.prepareTeaNanos().count());
+        assertEquals(4, metrics.orders());
+    }
+
+    @Test
+    public void testCupReadyTimeIsTheSteepingTime() {
+        // Act
+        shop.prepareTea("Green Tea");
+
+        // Assert
+        assertEquals(1, metrics.cupReadySeconds().count());
+        assertEquals(120, metrics.cupReadySeconds().sum());
+    }
+
+    @Test
+    public void testDisabledMetricsRecordNothing() {
+        // Arrange
+        shop.setMetrics(ShopMetrics.DISABLED);
+
+        // Act
+        shop.prepareTea("Green Tea");
+
+        // Assert
+        assertEquals(0, ShopMetrics.DISABLED.orders());
+        assertEquals(0, ShopMetrics.DISABLED.prepareTeaNanos().count());
+    }
+
+    @Test
+    public void testPrometheusExport(@TempDir Path directory) throws IOException {
+        // Arrange
+        shop.prepareTea("Green Tea");
+        Path file = directory.resolve("teashop.prom");
+
+        // Act
+        metrics.writePrometheus(file);
+        String text = Files.readString(file);
+
+        // Assert
+        assertTrue(text.contains("# TYPE teashop_orders_total counter\nteashop_orders_total 1\n"));
+        assertTrue(text.contains("teashop_cup_ready_seconds{quantile=\"0.5\"} 127.0\n"));
+        assertTrue(text.contains("teashop_cup_ready_seconds_sum 120.0\n"));
+        assertTrue(text.contains("teashop_set_water_temperature_seconds{quantile=\"0.99\"} NaN\n"));
+    }
+
+    @Test
+    public void testMetricsEndpoint() throws Exception {
+        // Arrange
+        HttpServer server = metrics.serve(new InetSocketAddress("127.0.0.1", 0));
+        try {
+            URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/metrics");
+
+            // Act
+            HttpResponse<String> response = HttpClient.newHttpClient()
+                    .send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+
+            // Assert
+            assertEquals(200, response.statusCode());
+            assertEquals(metrics.toPrometheus(), response.body());
+        } finally {
+            server.stop(0);
+        }
+    }
+}
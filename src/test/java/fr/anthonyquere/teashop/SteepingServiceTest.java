@@ -0,0 +1,201 @@
+package fr.anthonyquere.teashop;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SteepingServiceTest {
+
+    private ManualClock clock;
+    private TeaShop shop;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new ManualClock(1000);
+        shop = new TeaShop(80, clock);
+        shop.addTea(new Tea("Green Tea", 120, 80, true));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        shop.close();
+    }
+
+    @Test
+    public void testFutureCompletesWhenSteepingIsDone() {
+        // Arrange - completions run on the calling thread, time only moves with runDue
+        SteepingService service = new SteepingService(clock, Runnable::run);
+        CompletableFuture<TeaCup> future = shop.prepareTeaAsync("Green Tea", service);
+
+        // Act
+        clock.advance(119);
+        service.runDue();
+        boolean doneEarly = future.isDone();
+        clock.advance(1);
+        service.runDue();
+
+        // Assert
+        assertFalse(doneEarly);
+        assertTrue(future.isDone());
+        assertTrue(future.join().isReadyToDrink());
+        assertEquals(0, service.pending());
+    }
+
+    @Test
+    public void testCancelledFutureLeavesTheTimer() {
+        // Arrange
+        SteepingService service = new SteepingService(clock, Runnable::run);
+        CompletableFuture<TeaCup> future = shop.prepareTeaAsync("Green Tea", service);
+
+        // Act
+        future.cancel(false);
+
+        // Assert
+        assertEquals(0, service.pending());
+    }
+
+    @Test
+    public void testUnavailableTeaFailsImmediately() {
+        // Arrange
+        SteepingService service = new SteepingService(clock, Runnable::run);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> shop.prepareTeaAsync("Matcha", service));
+    }
+
+    @Test
+    public void testManyOrdersCompleteOnVirtualThreads() throws Exception {
+        // Arrange - the driver thread reads the manual clock every millisecond
+        int orders = 100_000;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             SteepingService service = new SteepingService(clock, executor, Duration.ofMillis(1))) {
+            List<CompletableFuture<Boolean>> continuations = new ArrayList<>(orders);
+            for (int i = 0; i < orders; i++) {
+                continuations.add(shop.prepareTeaAsync("Green Tea", service)
+                        .thenApply(cup -> Thread.currentThread().isVirtual()));
+            }
+
+            // Act
+            clock.advance(120);
+            CompletableFuture.allOf(continuations.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+            // Assert
+            assertTrue(continuations.stream().allMatch(CompletableFuture::join));
+            assertEquals(0, service.pending());
+        }
+    }
+
+    @Test
+    public void testRejectedCompletionFailsOnlyItsFuture() {
+        // Arrange - the executor rejects the first completion only
+        AtomicBoolean rejected = new AtomicBoolean();
+        Executor executor = task -> {
+            if (rejected.compareAndSet(false, true)) {
+                throw new RejectedExecutionException("Executor is full");
+            }
+            task.run();
+        };
+        SteepingService service = new SteepingService(clock, executor);
+        CompletableFuture<TeaCup> first = shop.prepareTeaAsync("Green Tea", service);
+        CompletableFuture<TeaCup> second = shop.prepareTeaAsync("Green Tea", service);
+
+        // Act
+        clock.advance(120);
+        service.runDue();
+
+        // Assert
+        CompletionException failure = assertThrows(CompletionException.class, first::join);
+        assertTrue(failure.getCause() instanceof RejectedExecutionException);
+        assertTrue(second.join().isReadyToDrink());
+        assertEquals(0, service.pending());
+    }
+
+    @Test
+    public void testDriverKeepsTickingAfterARejection() {
+        // Arrange
+        AtomicBoolean rejected = new AtomicBoolean();
+        Executor executor = task -> {
+            if (rejected.compareAndSet(false, true)) {
+                throw new RejectedExecutionException("Executor is full");
+            }
+            task.run();
+        };
+        try (SteepingService service = new SteepingService(clock, executor, Duration.ofMillis(1))) {
+            CompletableFuture<TeaCup> first = shop.prepareTeaAsync("Green Tea", service);
+            clock.advance(120);
+            assertThrows(CompletionException.class, () -> first.orTimeout(10, TimeUnit.SECONDS).join());
+
+            // Act
+            CompletableFuture<TeaCup> second = shop.prepareTeaAsync("Green Tea", service);
+            clock.advance(120);
+
+            // Assert
+            assertTrue(second.orTimeout(10, TimeUnit.SECONDS).join().isReadyToDrink());
+        }
+    }
+
+    @Test
+    public void testCloseCancelsPendingFutures() {
+        // Arrange
+        SteepingService service = new SteepingService(clock, Runnable::run);
+        CompletableFuture<TeaCup> future = shop.prepareTeaAsync("Green Tea", service);
+
+        // Act
+        service.close();
+
+        // Assert
+        assertTrue(future.isCancelled());
+        assertThrows(CancellationException.class, future::join);
+        assertEquals(0, service.pending());
+        assertThrows(IllegalStateException.class, () -> shop.prepareTeaAsync("Green Tea", service));
+    }
+
+    @Test
+    public void testShopSharesOneService() {
+        // Arrange
+        CompletableFuture<TeaCup> first = shop.prepareTeaAsync("Green Tea");
+        SteepingService service = shop.steepingService();
+
+        // Act
+        CompletableFuture<TeaCup> second = shop.prepareTeaAsync("Green Tea");
+        int pending = service.pending();
+        clock.advance(120);
+        first.orTimeout(10, TimeUnit.SECONDS).join();
+        second.orTimeout(10, TimeUnit.SECONDS).join();
+
+        // Assert
+        assertSame(service, shop.steepingService());
+        assertEquals(2, pending);
+    }
+
+    @Test
+    public void testClosingTheShopCancelsItsOrders() {
+        // Arrange
+        CompletableFuture<TeaCup> future = shop.prepareTeaAsync("Green Tea");
+
+        // Act
+        shop.close();
+
+        // Assert
+        assertTrue(future.isCancelled());
+        assertThrows(IllegalStateException.class, () -> shop.prepareTeaAsync("Green Tea"));
+    }
+}
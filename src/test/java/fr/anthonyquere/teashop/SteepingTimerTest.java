@@ -0,0 +1,146 @@
+package fr.anthonyquere.teashop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SteepingTimerTest {
+
+    private SteepingTimer timer;
+    private List<String> fired;
+
+    @BeforeEach
+    public void setup() {
+        timer = new SteepingTimer(1000);
+        fired = new ArrayList<>();
+    }
+
+    @Test
+    public void testFiresAtDeadlineInOrder() {
+        // Arrange
+        timer.schedule(1300, () -> fired.add("300s at " + timer.currentTime()));
+        timer.schedule(1005, () -> fired.add("5s at " + timer.currentTime()));
+        timer.schedule(1000 + 64 * 64 * 3, () -> fired.add("3h at " + timer.currentTime()));
+        timer.schedule(1120, () -> fired.add("120s at " + timer.currentTime()));
+
+        // Act
+        timer.advanceTo(1004);
+        List<String> early = List.copyOf(fired);
+        timer.advanceTo(100_000);
+
+        // Assert
+        assertTrue(early.isEmpty());
+        assertEquals(List.of("5s at 1005", "120s at 1120", "300s at 1300", "3h at 13288"), fired);
+        assertEquals(100_000, timer.currentTime());
+        assertEquals(0, timer.pending());
+    }
+
+    @Test
+    public void testCancel() {
+        // Arrange
+        SteepingTimer.Timeout cancelled = timer.schedule(1010, () -> fired.add("cancelled"));
+        SteepingTimer.Timeout kept = timer.schedule(1010, () -> fired.add("kept"));
+
+        // Act
+        boolean first = timer.cancel(cancelled);
+        boolean second = timer.cancel(cancelled);
+        timer.advanceTo(2000);
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(List.of("kept"), fired);
+        assertTrue(kept.isDone());
+        assertFalse(timer.cancel(kept));
+    }
+
+    @Test
+    public void testPastDeadlineFiresOnNextAdvance() {
+        // Act
+        timer.schedule(900, () -> fired.add("late"));
+
+        // Assert
+        assertTrue(fired.isEmpty());
+        timer.advanceTo(1000);
+        assertEquals(List.of("late"), fired);
+    }
+
+    @Test
+    public void testCallbackCanScheduleAgain() {
+        // Arrange - a cup refilled every 100 seconds
+        Runnable[] refill = new Runnable[1];
+        refill[0] = () -> {
+            fired.add("refill at " + timer.currentTime());
+            if (fired.size() < 3) {
+                timer.schedule(timer.currentTime() + 100, refill[0]);
+            }
+        };
+        timer.schedule(1100, refill[0]);
+
+        // Act
+        timer.advanceTo(5000);
+
+        // Assert
+        assertEquals(List.of("refill at 1100", "refill at 1200", "refill at 1300"), fired);
+    }
+
+    @Test
+    public void testNotifiesCupWhenSteepingIsDone() {
+        // Arrange
+        TeaCup cup = new TeaCup(new ManualClock(1000));
+        cup.addWater(80);
+        List<TeaCup> readyCups = new ArrayList<>();
+
+        // Act
+        SteepingTimer.Timeout timeout = cup.addTea(new Tea("Green Tea", 120, 80, true), timer, readyCups::add);
+        timer.advanceTo(1119);
+        boolean readyEarly = !readyCups.isEmpty();
+        timer.advanceTo(1120);
+
+        // Assert
+        assertFalse(readyEarly);
+        assertEquals(List.of(cup), readyCups);
+        assertEquals(1120, timeout.deadline());
+        assertThrows(IllegalStateException.class, () -> timer.schedule(new TeaCup(), readyCups::add));
+    }
+
+    @Test
+    public void testManyRandomTimeouts() {
+        // Arrange
+        Random random = new Random(42);
+        int count = 200_000;
+        long[] deadlines = new long[count];
+        long[] firedAt = new long[count];
+        List<SteepingTimer.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int id = i;
+            deadlines[i] = 1000 + (random.nextBoolean() ? random.nextInt(600) : random.nextInt(10_000_000));
+            timeouts.add(timer.schedule(deadlines[i], () -> firedAt[id] = timer.currentTime()));
+        }
+        for (int i = 0; i < count; i += 10) {
+            timer.cancel(timeouts.get(i));
+        }
+
+        // Act - small steps first, then big jumps
+        for (long time = 1000; time < 2000; time += 7) {
+            timer.advanceTo(time);
+        }
+        for (long time = 2000; time <= 11_000_000; time += 999_983) {
+            timer.advanceTo(time);
+        }
+        timer.advanceTo(11_000_000);
+
+        // Assert
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 10 == 0 ? 0 : deadlines[i], firedAt[i], "timeout " + i);
+        }
+        assertEquals(0, timer.pending());
+    }
+}
@@ -0,0 +1,243 @@
+package fr.anthonyquere.teashop;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TeaCatalogTest {
+
+    private TeaCatalog catalog;
+    private Tea greenTea;
+
+    @BeforeEach
+    public void setup() {
+        catalog = new TeaCatalog();
+        greenTea = new Tea("Green Tea", 120, 80, true);
+        catalog.put(greenTea);
+    }
+
+    @Test
+    public void testGetIsCaseInsensitive() {
+        // Act & Assert
+        assertSame(greenTea, catalog.get("Green Tea"));
+        assertSame(greenTea, catalog.get("green tea"));
+        assertSame(greenTea, catalog.get("GREEN TEA"));
+        assertSame(greenTea, catalog.get(new StringBuilder("gReEn TeA")));
+    }
+
+    @Test
+    public void testGetNameWhoseLowerCaseIsLonger() {
+        // Arrange - 'İ' lower-cases to two chars with String.toLowerCase, to 'i' char by char
+        Tea chai = new Tea("İstanbul Chai", 180, 95, false);
+        catalog.put(chai);
+
+        // Act & Assert
+        assertSame(chai, catalog.get("İstanbul Chai"));
+        assertSame(chai, catalog.get("ISTANBUL CHAI"));
+        assertTrue(catalog.remove("İSTANBUL CHAI"));
+    }
+
+    @Test
+    public void testGetMissingTea() {
+        // Act & Assert
+        assertNull(catalog.get("Matcha"));
+        assertNull(catalog.get("Green Te"));
+    }
+
+    @Test
+    public void testPutReplacesSameNameInAnyCase() {
+        // Arrange
+        Tea strongerGreenTea = new Tea("GREEN TEA", 180, 80, true);
+
+        // Act
+        catalog.put(strongerGreenTea);
+
+        // Assert
+        assertEquals(1, catalog.size());
+        assertSame(strongerGreenTea, catalog.get("green tea"));
+    }
+
+    @Test
+    public void testManyTeasSurviveResizing() {
+        // Act
+        for (int i = 0; i < 1_000; i++) {
+            catalog.put(new Tea("Tea " + i, i, 80, false));
+        }
+
+        // Assert
+        assertEquals(1_001, catalog.size());
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i, catalog.get("TEA " + i).getSteepingTimeSeconds());
+        }
+        assertSame(greenTea, catalog.get("green tea"));
+    }
+
+    @Test
+    public void testMapViewIsKeyedByLowerCaseName() {
+        // Arrange
+        catalog.put(new Tea("Earl Grey", 180, 95, false));
+
+        // Act
+        Map<String, Tea> teas = catalog.asMap();
+
+        // Assert
+        assertEquals(2, teas.size());
+        assertTrue(teas.containsKey("green tea"));
+        assertTrue(teas.containsKey("earl grey"));
+        assertFalse(teas.containsKey("Earl Grey"));
+        assertEquals(Map.of("green tea", greenTea, "earl grey", catalog.get("earl grey")), teas);
+        assertThrows(UnsupportedOperationException.class, () -> teas.put("matcha", greenTea));
+    }
+
+    @Test
+    public void testSnapshotDoesNotSeeLaterUpdates() {
+        // Arrange
+        TeaCatalog.Snapshot snapshot = catalog.snapshot();
+        Map<String, Tea> teas = snapshot.asMap();
+
+        // Act
+        catalog.put(new Tea("Earl Grey", 180, 95, false));
+        catalog.remove("Green Tea");
+
+        // Assert
+        assertEquals(1, snapshot.size());
+        assertSame(greenTea, snapshot.get("GREEN TEA"));
+        assertNull(snapshot.get("Earl Grey"));
+        assertEquals(Map.of("green tea", greenTea), teas);
+        assertEquals(snapshot.version() + 2, catalog.snapshot().version());
+    }
+
+    @Test
+    public void testIteratingWhileAddingTeas() {
+        // Act - every put publishes a new snapshot, the map being iterated is not affected
+        int seen = 0;
+        for (String name : catalog.asMap().keySet()) {
+            catalog.put(new Tea(name + " bis", 120, 80, true));
+            seen++;
+        }
+
+        // Assert
+        assertEquals(1, seen);
+        assertEquals(2, catalog.size());
+    }
+
+    @Test
+    public void testRemove() {
+        // Arrange
+        Tea earlGrey = new Tea("Earl Grey", 180, 95, false);
+        catalog.put(earlGrey);
+
+        // Act & Assert
+        assertTrue(catalog.remove("GREEN tea"));
+        assertFalse(catalog.remove("Green Tea"));
+        assertNull(catalog.get("green tea"));
+        assertSame(earlGrey, catalog.get("earl grey"));
+        assertEquals(1, catalog.size());
+    }
+
+    @Test
+    public void testChangesSinceVersion() {
+        // Arrange
+        long version = catalog.snapshot().version();
+        Tea earlGrey = new Tea("Earl Grey", 180, 95, false);
+        Tea strongerGreenTea = new Tea("Green Tea", 180, 80, true);
+
+        // Act
+        catalog.put(earlGrey);
+        catalog.put(strongerGreenTea);
+        catalog.remove("earl grey");
+
+        // Assert
+        assertEquals(Optional.of(List.of(
+                new TeaCatalog.Change(version + 1, TeaCatalog.Change.Type.ADDED, "earl grey", earlGrey),
+                new TeaCatalog.Change(version + 2, TeaCatalog.Change.Type.REPLACED, "green tea", strongerGreenTea),
+                new TeaCatalog.Change(version + 3, TeaCatalog.Change.Type.REMOVED, "earl grey", earlGrey))),
+                catalog.snapshot().changesSince(version));
+        assertEquals(1, catalog.snapshot().changesSince(version + 2).orElseThrow().size());
+        assertEquals(Optional.of(List.of()), catalog.snapshot().changesSince(version + 3));
+        assertEquals(Optional.empty(), catalog.snapshot().changesSince(version + 4));
+    }
+
+    @Test
+    public void testChangesSinceTruncatedHistory() {
+        // Arrange
+        long version = catalog.snapshot().version();
+
+        // Act
+        for (int i = 0; i < TeaCatalog.MAX_HISTORY + 10; i++) {
+            catalog.put(new Tea("Tea " + i, i, 80, false));
+        }
+
+        // Assert - too old, the reader has to start over from the snapshot
+        TeaCatalog.Snapshot snapshot = catalog.snapshot();
+        assertEquals(Optional.empty(), snapshot.changesSince(version));
+        assertEquals(10, snapshot.changesSince(snapshot.version() - 10).orElseThrow().size());
+    }
+
+    @Test
+    public void testReplaceAllPublishesOneVersion() {
+        // Arrange
+        Tea earlGrey = new Tea("Earl Grey", 180, 95, false);
+        Tea sencha = new Tea("Sencha", 90, 75, true);
+        catalog.put(earlGrey);
+        long version = catalog.snapshot().version();
+        Tea newEarlGrey = new Tea("EARL GREY", 200, 95, false);
+
+        // Act
+        catalog.replaceAll(List.of(greenTea, newEarlGrey, sencha));
+
+        // Assert
+        TeaCatalog.Snapshot snapshot = catalog.snapshot();
+        assertEquals(version + 1, snapshot.version());
+        assertEquals(3, snapshot.size());
+        assertSame(newEarlGrey, snapshot.get("earl grey"));
+        List<TeaCatalog.Change> changes = snapshot.changesSince(version).orElseThrow();
+        assertEquals(2, changes.size());
+        assertTrue(changes.contains(new TeaCatalog.Change(version + 1, TeaCatalog.Change.Type.REPLACED, "earl grey", newEarlGrey)));
+        assertTrue(changes.contains(new TeaCatalog.Change(version + 1, TeaCatalog.Change.Type.ADDED, "sencha", sencha)));
+
+        // Act - reloading a smaller menu removes the missing teas
+        catalog.replaceAll(List.of(sencha));
+
+        // Assert
+        assertEquals(1, catalog.size());
+        assertEquals(2, catalog.snapshot().changesSince(version + 1).orElseThrow().stream()
+                .filter(change -> change.type() == TeaCatalog.Change.Type.REMOVED)
+                .count());
+    }
+
+    @Test
+    public void testLookupDoesNotAllocate() {
+        // Arrange
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        String[] orders = {"Green Tea", "GREEN TEA", "Matcha"};
+        for (int i = 0; i < 100_000; i++) {
+            catalog.get(orders[i % orders.length]);
+        }
+
+        // Act
+        long before = threads.getThreadAllocatedBytes(threadId);
+        int hits = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            if (catalog.get(orders[i % orders.length]) != null) {
+                hits++;
+            }
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Assert
+        assertEquals(666_667, hits);
+        assertTrue(allocated < 1_024, "Allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,84 @@
+package fr.anthonyquere.teashop;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class TeaClockTest {
+
+    @Test
+    public void testManualClock() {
+        // Arrange
+        ManualClock clock = new ManualClock(1000);
+
+        // Act & Assert
+        assertEquals(1000, clock.currentTimeSeconds());
+        clock.advance(60);
+        assertEquals(1060, clock.currentTimeSeconds());
+        clock.setTime(5_000_000_000L); // after 2038
+        assertEquals(5_000_000_000L, clock.currentTimeSeconds());
+        assertThrows(IllegalArgumentException.class, () -> clock.advance(-1));
+    }
+
+    @Test
+    public void testCupUsesItsClockBeyond2038() {
+        // Arrange
+        ManualClock clock = new ManualClock(4_000_000_000L);
+        TeaCup cup = new TeaCup(clock);
+        cup.addWater(80);
+        cup.addTea(new Tea("Green Tea", 120, 80, true));
+
+        // Act
+        clock.advance(119);
+        boolean readyEarly = cup.isReadyToDrink();
+        clock.advance(1);
+
+        // Assert
+        assertFalse(readyEarly);
+        assertTrue(cup.isReadyToDrink());
+        assertEquals(4_000_000_000L, cup.getSteepingStartTime());
+        assertEquals(120, cup.getSteepingTimeElapsed());
+    }
+
+    @Test
+    public void testSystemAndMonotonicClocksAgree() {
+        // Act
+        long system = TeaClock.system().currentTimeSeconds();
+        TeaClock monotonic = TeaClock.monotonic();
+        long first = monotonic.currentTimeSeconds();
+
+        // Assert
+        assertTrue(Math.abs(first - system) <= 1);
+        assertTrue(monotonic.currentTimeSeconds() >= first);
+    }
+
+    @Test
+    public void testCachedClockFollowsSourceUntilClosed() throws Exception {
+        // Arrange
+        AtomicLong source = new AtomicLong(1000);
+        CachedClock clock = new CachedClock(source::get, Duration.ofMillis(1));
+
+        // Act
+        source.set(2000);
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (clock.currentTimeSeconds() != 2000 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        long ticked = clock.currentTimeSeconds();
+        clock.close();
+        Thread.sleep(20); // let the ticker thread stop
+        long closed = clock.currentTimeSeconds();
+        source.set(3000);
+        Thread.sleep(20);
+
+        // Assert
+        assertEquals(2000, ticked);
+        assertEquals(closed, clock.currentTimeSeconds());
+        assertThrows(IllegalArgumentException.class, () -> new CachedClock(source::get, Duration.ZERO));
+    }
+}
@@ -0,0 +1,118 @@
+package fr.anthonyquere.teashop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class TeaCupConcurrencyTest {
+
+    private static final int READERS = 8;
+
+    @Test
+    public void testReadersNeverSeeTornState() throws Exception {
+        // Arrange - each refill is tagged with its round: water at round % 100°C poured at time round,
+        // tea named after the round added at time round too
+        ManualClock clock = new ManualClock(0);
+        TeaCup cup = new TeaCup(clock);
+        int rounds = 200_000;
+        ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Act
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(executor.submit(() -> {
+                start.await();
+                int snapshots = 0;
+                while (!done.get()) {
+                    TeaCup.State state = cup.snapshot();
+                    switch (state.phase()) {
+                        case EMPTY -> assertEquals(null, state.tea());
+                        case WATER -> {
+                            assertEquals(state.waterTime() % 100, state.waterTemperatureCelsius());
+                            assertEquals(null, state.tea());
+                        }
+                        case STEEPING, READY, DRUNK -> {
+                            assertEquals(state.waterTime() % 100, state.waterTemperatureCelsius());
+                            assertEquals("Tea " + state.steepingStartTime(), state.tea().getName());
+                            assertEquals(state.waterTime(), state.steepingStartTime());
+                        }
+                    }
+                    snapshots++;
+                }
+                return snapshots;
+            }));
+        }
+        Future<?> barista = executor.submit(() -> {
+            start.await();
+            for (int round = 1; round <= rounds; round++) {
+                clock.setTime(round);
+                cup.addWater(round % 100);
+                cup.addTea(new Tea("Tea " + round, 0, round % 100, false));
+                cup.drink();
+            }
+            return null;
+        });
+        start.countDown();
+        barista.get(60, TimeUnit.SECONDS);
+        done.set(true);
+
+        // Assert - a failed assertion in a reader surfaces here
+        for (Future<Integer> reader : readers) {
+            assertTrue(reader.get(60, TimeUnit.SECONDS) > 0);
+        }
+        executor.shutdown();
+        assertEquals(TeaCup.Phase.DRUNK, cup.snapshot().phase());
+    }
+
+    @Test
+    public void testOnlyOneThreadDrinksEachCup() throws Exception {
+        // Arrange
+        ManualClock clock = new ManualClock(1000);
+        Tea instantTea = new Tea("Instant", 0, 80, false);
+        ExecutorService executor = Executors.newFixedThreadPool(READERS);
+        int cups = 2_000;
+
+        for (int i = 0; i < cups; i++) {
+            TeaCup cup = new TeaCup(clock);
+            cup.addWater(80);
+            cup.addTea(instantTea);
+            AtomicInteger drinkers = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+
+            // Act - every thread tries to drink the same cup
+            List<Future<?>> attempts = new ArrayList<>();
+            for (int t = 0; t < READERS; t++) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        cup.drink();
+                        drinkers.incrementAndGet();
+                    } catch (IllegalStateException alreadyDrunk) {
+                        // Another thread was faster
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> attempt : attempts) {
+                attempt.get(60, TimeUnit.SECONDS);
+            }
+
+            // Assert
+            assertEquals(1, drinkers.get(), "cup " + i);
+        }
+        executor.shutdown();
+    }
+}
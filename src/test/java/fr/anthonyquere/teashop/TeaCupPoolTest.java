@@ -0,0 +1,230 @@
+package fr.anthonyquere.teashop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TeaCupPoolTest {
+
+    private ManualClock clock;
+    private TeaCupPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new ManualClock(1000);
+        pool = new TeaCupPool(clock, CoolingModel.NONE, 16, 2, true);
+    }
+
+    @Test
+    public void testReleasedCupIsReusedEmpty() {
+        // Arrange
+        TeaCup cup = pool.acquire();
+        cup.addWater(80);
+        cup.addTea(new Tea("Green Tea", 0, 80, true));
+
+        // Act
+        pool.release(cup);
+        TeaCup reused = pool.acquire();
+
+        // Assert
+        assertSame(cup, reused);
+        assertTrue(reused.isEmpty());
+        assertEquals(TeaCup.Phase.EMPTY, reused.snapshot().phase());
+        assertEquals(1, pool.created());
+    }
+
+    @Test
+    public void testReleaseTwiceFails() {
+        // Arrange
+        TeaCup cup = pool.acquire();
+        pool.release(cup);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> pool.release(cup));
+    }
+
+    @Test
+    public void testReleaseCupNotFromAPoolFails() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> pool.release(new TeaCup(clock)));
+    }
+
+    @Test
+    public void testReleaseCupOfAnotherPoolFails() {
+        // Arrange
+        TeaCupPool other = new TeaCupPool(clock, CoolingModel.NONE, 16, 2, false);
+        TeaCup cup = other.acquire();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> pool.release(cup));
+    }
+
+    @Test
+    public void testOverflowIsSharedBetweenThreads() throws Exception {
+        // Arrange - 5 cups released: 2 stay in this thread's cache, 3 go to the shared stack
+        List<TeaCup> cups = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            cups.add(pool.acquire());
+        }
+        cups.forEach(pool::release);
+
+        // Act
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        List<TeaCup> taken = executor.submit(() -> {
+            List<TeaCup> result = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                result.add(pool.acquire());
+            }
+            return result;
+        }).get();
+        executor.shutdown();
+
+        // Assert - the other thread got the 3 shared cups, then had to create one
+        assertEquals(3, taken.stream().filter(cups::contains).count());
+        assertEquals(6, pool.created());
+        assertEquals(4, pool.leased());
+    }
+
+    @Test
+    public void testCupsReleasedByEndedThreadsAreReused() throws Exception {
+        // Arrange - cups acquired here, released by virtual threads and by platform threads that then end
+        List<TeaCup> cups = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            cups.add(pool.acquire());
+        }
+
+        // Act
+        for (int i = 0; i < 8; i++) {
+            TeaCup cup = cups.get(i);
+            Thread.ofVirtual().start(() -> pool.release(cup)).join();
+        }
+        for (int i = 8; i < 16; i++) {
+            TeaCup cup = cups.get(i);
+            Thread.ofPlatform().start(() -> pool.release(cup)).join();
+        }
+        List<TeaCup> reused = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            reused.add(pool.acquire());
+        }
+
+        // Assert - no cup was stranded in the cache of an ended thread
+        assertTrue(reused.containsAll(cups));
+        assertEquals(16, pool.created());
+        assertTrue(reused.stream().allMatch(cup -> cup.poolId >= 0));
+    }
+
+    @Test
+    public void testCupsBeyondCapacityAreNotPooled() {
+        // Arrange
+        TeaCupPool small = new TeaCupPool(clock, CoolingModel.NONE, 1, 0, false);
+        TeaCup pooled = small.acquire();
+
+        // Act
+        TeaCup extra = small.acquire();
+        small.release(extra);
+        small.release(pooled);
+
+        // Assert
+        assertNotSame(pooled, extra);
+        assertSame(pooled, small.acquire());
+        assertEquals(1, small.created());
+        assertThrows(IllegalStateException.class, () -> small.release(extra));
+    }
+
+    @Test
+    public void testCupsBeyondCapacityAreLeased() {
+        // Arrange
+        TeaCupPool small = new TeaCupPool(clock, CoolingModel.NONE, 1, 0, true);
+        small.acquire();
+
+        // Act
+        TeaCup extra = small.acquire();
+
+        // Assert
+        assertEquals(2, small.leased());
+        assertEquals(2, small.leaks().size());
+        assertThrows(IllegalStateException.class, () -> pool.release(extra));
+        small.release(extra);
+        assertEquals(1, small.leased());
+    }
+
+    @Test
+    public void testLeaksReportWhereCupsWereAcquired() {
+        // Arrange
+        TeaCup released = pool.acquire();
+        pool.acquire();
+
+        // Act
+        pool.release(released);
+        List<Throwable> leaks = pool.leaks();
+
+        // Assert
+        assertEquals(1, leaks.size());
+        assertEquals("testLeaksReportWhereCupsWereAcquired", leaks.get(0).getStackTrace()[1].getMethodName());
+    }
+
+    @Test
+    public void testCupIsNeverLeasedTwiceConcurrently() throws Exception {
+        // Arrange - tiny local caches so that most cups go through the shared stack
+        TeaCupPool shared = new TeaCupPool(clock, CoolingModel.NONE, 1024, 1, false);
+        AtomicIntegerArray holders = new AtomicIntegerArray(1024);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Act
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(executor.submit(() -> {
+                List<TeaCup> held = new ArrayList<>();
+                for (int round = 0; round < 20_000; round++) {
+                    for (int i = 0; i < 3; i++) {
+                        TeaCup cup = shared.acquire();
+                        assertEquals(0, holders.getAndIncrement(cup.poolId));
+                        held.add(cup);
+                    }
+                    for (TeaCup cup : held) {
+                        holders.decrementAndGet(cup.poolId);
+                        shared.release(cup);
+                    }
+                    held.clear();
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(0, shared.leased());
+        assertTrue(shared.created() <= 3 * threads);
+    }
+
+    @Test
+    public void testShopServesPooledCups() {
+        // Arrange
+        TeaShop shop = new TeaShop(80, pool);
+        shop.addTea(new Tea("Green Tea", 0, 80, true));
+
+        // Act
+        TeaCup first = shop.prepareTea("green tea");
+        shop.releaseCup(first);
+        TeaCup second = shop.prepareTea("green tea");
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("Green Tea", second.getTea().getName());
+        assertEquals(1, pool.leased());
+    }
+}
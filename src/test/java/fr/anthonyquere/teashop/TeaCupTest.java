@@ -1,6 +1,8 @@
 package fr.anthonyquere.teashop;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -14,9 +16,11 @@ public class TeaCupTest {
     
     private TeaCup teaCup;
     private Tea simpleTea;
+    private ManualClock clock;
     
     @BeforeEach
     public void setup() {
+        clock = new ManualClock(1000);
         teaCup = new TeaCup();
         simpleTea = new Tea("Simple Tea", 120, 80, false);
     }
@@ -61,13 +65,12 @@ public class TeaCupTest {
         assertFalse(teaCup.isReadyToDrink());
     }
     
-    // This subclass overrides getCurrentTimeInSeconds to make it testable
+    // Time is driven by a manual clock, this subclass only controls the temperature check
     private static class TestableTeaCup extends TeaCup {
-        private int currentTimeSeconds = 1000;
         private int idealTemperatureOffset = 0;
         
-        public void setCurrentTime(int timeInSeconds) {
-            this.currentTimeSeconds = timeInSeconds;
+        TestableTeaCup(TeaClock clock) {
+            super(clock);
         }
         
         public void setIdealTemperatureOffset(int offset) {
@@ -75,13 +78,8 @@ public class TeaCupTest {
         }
         
         @Override
-        protected int getCurrentTimeInSeconds() {
-            return currentTimeSeconds;
-        }
-        
-        @Override
-        protected boolean isTemperatureIdeal() {
-            if (getTea() == null) return false;
+        protected boolean isTemperatureIdeal(State state, long timeSeconds) {
+            if (state.tea() == null) return false;
             // If offset is 0, return true (ideal temperature)
             // If offset is not 0, return false (not ideal temperature)
             return idealTemperatureOffset == 0;
@@ -91,25 +89,25 @@ public class TeaCupTest {
     @Test
     public void testIsReadyToDrinkBasedOnTime() {
         // Arrange
-        TestableTeaCup testCup = new TestableTeaCup();
+        TestableTeaCup testCup = new TestableTeaCup(clock);
         testCup.addWater(80);
         
         Tea tea = new Tea("Test Tea", 120, 80, false);
-        testCup.setCurrentTime(1000); // Set initial time
+        clock.setTime(1000); // Set initial time
         testCup.addTea(tea);
         
         // Act & Assert - Not steeped long enough
         assertFalse(testCup.isReadyToDrink());
         
         // Act & Assert - Steeped long enough
-        testCup.setCurrentTime(1121); // 1000 + 121 seconds
+        clock.setTime(1121); // 1000 + 121 seconds
         assertTrue(testCup.isReadyToDrink());
     }
     
     @Test
     public void testIsReadyToDrinkBasedOnTemperature() {
         // Arrange
-        TestableTeaCup testCup = new TestableTeaCup();
+        TestableTeaCup testCup = new TestableTeaCup(clock);
         testCup.addWater(80);
         
         Tea tea = new Tea("Test Tea", 0, 80, false); // 0 steeping time to isolate temperature test
@@ -178,42 +176,169 @@ public class TeaCupTest {
     @Test
     public void testGetSteepingTimeElapsed() {
         // Arrange
-        TestableTeaCup testCup = new TestableTeaCup();
+        TestableTeaCup testCup = new TestableTeaCup(clock);
         testCup.addWater(80);
         
         // Act & Assert - Before adding tea
         assertEquals(0, testCup.getSteepingTimeElapsed());
         
         // Act & Assert - After adding tea
-        testCup.setCurrentTime(1000);
+        clock.setTime(1000);
         testCup.addTea(simpleTea);
         assertEquals(0, testCup.getSteepingTimeElapsed());
         
         // Act & Assert - After time passes
-        testCup.setCurrentTime(1060);
+        clock.setTime(1060);
         assertEquals(60, testCup.getSteepingTimeElapsed());
     }
     
     @Test
     public void testGetSteepingTimeRemaining() {
         // Arrange
-        TestableTeaCup testCup = new TestableTeaCup();
+        TestableTeaCup testCup = new TestableTeaCup(clock);
         testCup.addWater(80);
         
         // Act & Assert - Before adding tea
         assertEquals(0, testCup.getSteepingTimeRemaining());
         
         // Act & Assert - After adding tea
-        testCup.setCurrentTime(1000);
+        clock.setTime(1000);
         testCup.addTea(simpleTea);
         assertEquals(120, testCup.getSteepingTimeRemaining());
         
         // Act & Assert - After some time passes
-        testCup.setCurrentTime(1060);
+        clock.setTime(1060);
         assertEquals(60, testCup.getSteepingTimeRemaining());
         
         // Act & Assert - After all time passes
-        testCup.setCurrentTime(1130);
+        clock.setTime(1130);
         assertEquals(0, testCup.getSteepingTimeRemaining());
     }
-}
\ No newline at end of file
+    
+    @Test
+    public void testTemperatureCoolsDownLazily() {
+        // Arrange
+        TeaCup cup = new TeaCup(clock, CoolingModel.newton(20, Math.log(2) / 600));
+        cup.addWater(90);
+        
+        // Act & Assert - half-way to the room temperature every 10 minutes
+        assertEquals(90, cup.getCurrentTemperatureCelsius());
+        clock.advance(600);
+        assertEquals(55, cup.getCurrentTemperatureCelsius());
+        clock.advance(600);
+        assertEquals(38, cup.getCurrentTemperatureCelsius());
+    }
+    
+    @Test
+    public void testDrinkWindowOfCoolingCup() {
+        // Arrange - water at 100°C for a tea drunk at 80°C ± 5
+        TeaCup cup = new TeaCup(clock, CoolingModel.newton(20, 0.002));
+        cup.addWater(100);
+        cup.addTea(new Tea("Green Tea", 60, 80, true));
+        
+        // Act
+        DrinkWindow window = cup.getDrinkWindow().orElseThrow();
+        
+        // Assert - ready when the water has cooled to 85°C, no longer below 75°C
+        assertEquals(1000 + 104, window.fromSeconds());
+        assertEquals(1000 + 188, window.untilSeconds());
+        clock.setTime(window.fromSeconds() - 1);
+        assertFalse(cup.isReadyToDrink());
+        clock.setTime(window.fromSeconds());
+        assertTrue(cup.isReadyToDrink());
+        clock.setTime(window.untilSeconds() - 1);
+        assertTrue(cup.isReadyToDrink());
+        clock.setTime(window.untilSeconds());
+        assertFalse(cup.isReadyToDrink());
+    }
+    
+    @Test
+    public void testDrinkWindowWithoutCooling() {
+        // Arrange
+        TeaCup idealCup = new TeaCup(clock);
+        idealCup.addWater(80);
+        idealCup.addTea(simpleTea);
+        TeaCup hotCup = new TeaCup(clock);
+        hotCup.addWater(95);
+        hotCup.addTea(simpleTea);
+        
+        // Act & Assert
+        assertEquals(Optional.of(new DrinkWindow(1120, Long.MAX_VALUE)), idealCup.getDrinkWindow());
+        assertEquals(Optional.empty(), hotCup.getDrinkWindow());
+        assertEquals(Optional.empty(), teaCup.getDrinkWindow());
+    }
+    
+    @Test
+    public void testDrinkWindowMatchesIsReadyToDrink() {
+        // Arrange
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            clock.setTime(1000);
+            CoolingModel cooling = CoolingModel.newton(random.nextInt(40), random.nextDouble() * 0.01);
+            TeaCup cup = new TeaCup(clock, cooling);
+            cup.addWater(random.nextInt(101));
+            clock.advance(random.nextInt(100));
+            cup.addTea(new Tea("Tea", random.nextInt(300), 50 + random.nextInt(51), false));
+            
+            // Act
+            Optional<DrinkWindow> window = cup.getDrinkWindow();
+            
+            // Assert
+            for (long time = 1000; time < 4000; time++) {
+                clock.setTime(time);
+                boolean inWindow = window.isPresent() && window.get().contains(time);
+                assertEquals(cup.isReadyToDrink(), inWindow, "cup " + i + " at " + time);
+            }
+        }
+    }
+    
+    @Test
+    public void testPhases() {
+        // Arrange
+        TeaCup cup = new TeaCup(clock);
+        
+        // Act & Assert
+        assertEquals(TeaCup.Phase.EMPTY, cup.snapshot().phase());
+        cup.addWater(80);
+        assertEquals(TeaCup.Phase.WATER, cup.snapshot().phase());
+        cup.addTea(simpleTea);
+        assertEquals(TeaCup.Phase.STEEPING, cup.snapshot().phase());
+        clock.advance(120);
+        TeaCup.State ready = cup.snapshot();
+        assertEquals(TeaCup.Phase.READY, ready.phase());
+        assertEquals(simpleTea, ready.tea());
+        assertEquals(1000, ready.steepingStartTime());
+        assertEquals(simpleTea, cup.drink());
+        assertEquals(TeaCup.Phase.DRUNK, cup.snapshot().phase());
+        assertTrue(cup.isEmpty());
+        assertFalse(cup.isReadyToDrink());
+    }
+    
+    @Test
+    public void testDrinkBeforeReady() {
+        // Arrange
+        TeaCup cup = new TeaCup(clock);
+        cup.addWater(80);
+        cup.addTea(simpleTea);
+        
+        // Act & Assert
+        Exception exception = assertThrows(IllegalStateException.class, cup::drink);
+        assertEquals("Tea is not ready to drink!", exception.getMessage());
+        assertEquals(TeaCup.Phase.STEEPING, cup.snapshot().phase());
+    }
+    
+    @Test
+    public void testDrunkCupCanBeRefilled() {
+        // Arrange
+        TeaCup cup = new TeaCup(clock);
+        cup.addWater(80);
+        cup.addTea(new Tea("Instant", 0, 80, false));
+        cup.drink();
+        
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> cup.addTea(simpleTea));
+        cup.addWater(85);
+        assertEquals(TeaCup.Phase.WATER, cup.snapshot().phase());
+        assertEquals(null, cup.getTea());
+    }
+}
@@ -0,0 +1,154 @@
+package fr.anthonyquere.teashop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class TeaShopConcurrencyTest {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+    private static final Set<Integer> TEMPERATURES = Set.of(70, 80, 90);
+    private static final String[] MENU = {"Green Tea", "earl grey", "CHAMOMILE", "Sencha", "oolong"};
+
+    private static TeaShop openShop() {
+        TeaShop shop = new TeaShop(90);
+        shop.addTea(new Tea("Green Tea", 120, 80, true));
+        shop.addTea(new Tea("Earl Grey", 180, 95, false));
+        shop.addTea(new Tea("Chamomile", 300, 100, true));
+        shop.addTea(new Tea("Sencha", 90, 75, true));
+        shop.addTea(new Tea("Oolong", 240, 90, true));
+        return shop;
+    }
+
+    @Test
+    public void testOrdersStayConsistentWhileShopIsUpdated() throws Exception {
+        // Arrange
+        TeaShop shop = openShop();
+        int readers = 16;
+        int ordersPerReader = 50_000;
+        int addedTeas = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(readers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Act - readers order from the menu while a writer adds teas and changes the temperature
+        List<Future<Integer>> readerResults = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            readerResults.add(executor.submit(() -> {
+                start.await();
+                int wrongTemperatures = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < ordersPerReader; i++) {
+                    TeaCup cup = shop.prepareTea(MENU[random.nextInt(MENU.length)]);
+                    if (!TEMPERATURES.contains(cup.getCurrentTemperatureCelsius())) {
+                        wrongTemperatures++;
+                    }
+                }
+                return wrongTemperatures;
+            }));
+        }
+        Future<?> writer = executor.submit(() -> {
+            start.await();
+            int[] temperatures = {70, 80, 90};
+            for (int i = 0; i < addedTeas; i++) {
+                shop.addTea(new Tea("Blend " + i, 120, 85, true));
+                shop.setWaterTemperature(temperatures[i % temperatures.length]);
+            }
+            return null;
+        });
+        start.countDown();
+
+        int wrongTemperatures = 0;
+        for (Future<Integer> result : readerResults) {
+            wrongTemperatures += result.get(60, TimeUnit.SECONDS);
+        }
+        writer.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        assertEquals(0, wrongTemperatures);
+        assertEquals(MENU.length + addedTeas, shop.getAvailableTeas().size());
+        for (int i = 0; i < addedTeas; i++) {
+            assertNotNull(shop.prepareTea("BLEND " + i));
+        }
+    }
+
+    @Test
+    public void testConcurrentWritersDoNotLoseTeas() throws Exception {
+        // Arrange
+        TeaShop shop = new TeaShop(90);
+        int writers = 8;
+        int teasPerWriter = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+
+        // Act
+        List<Future<?>> results = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writerId = w;
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < teasPerWriter; i++) {
+                    shop.addTea(new Tea("Tea " + writerId + "-" + i, 120, 85, true));
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(writers * teasPerWriter, shop.getAvailableTeas().size());
+    }
+
+    @Test
+    public void testNoThreadCountStarvesFromOneTo32Threads() throws Exception {
+        // Arrange - scaling itself is measured by the prepareTeaMixed thread sweep of TeaShopBenchmark
+        TeaShop shop = openShop();
+        long durationMillis = 200;
+
+        for (int threads : THREAD_COUNTS) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            LongAdder orders = new LongAdder();
+            AtomicBoolean stop = new AtomicBoolean();
+            CountDownLatch start = new CountDownLatch(1);
+
+            // Act - every thread orders as fast as it can for a fixed duration
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    long served = 0;
+                    for (int i = offset; !stop.get(); i++) {
+                        shop.prepareTea(MENU[i % MENU.length]);
+                        served++;
+                    }
+                    orders.add(served);
+                    return null;
+                }));
+            }
+            start.countDown();
+            Thread.sleep(durationMillis);
+            stop.set(true);
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            // Assert
+            assertTrue(orders.sum() > 0, "No order served with " + threads + " threads");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package fr.anthonyquere.teashop;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TeaShopSimulatorTest {
+
+    private List<Tea> menu;
+
+    @BeforeEach
+    public void setUp() {
+        menu = List.of(
+                new Tea("Green Tea", 120, 80, true),
+                new Tea("White Tea", 150, 85, true),
+                new Tea("Earl Grey", 180, 95, false));
+    }
+
+    private TeaShopSimulator simulator(TeaShopSimulator.ArrivalProcess arrivals, long seed) {
+        return new TeaShopSimulator(menu, arrivals, () -> new KettleScheduler(2, 8, 120, 60, 90), seed);
+    }
+
+    private TeaShopSimulator.Report run(TeaShopSimulator.ArrivalProcess arrivals, long seed, int orders) {
+        return simulator(arrivals, seed).run(orders);
+    }
+
+    @Test
+    public void testSameSeedReplaysTheSameRun() {
+        // Act
+        TeaShopSimulator.Report first = run(new TeaShopSimulator.Poisson(0.1), 7, 10_000);
+        TeaShopSimulator.Report second = run(new TeaShopSimulator.Poisson(0.1), 7, 10_000);
+        TeaShopSimulator.Report other = run(new TeaShopSimulator.Poisson(0.1), 8, 10_000);
+
+        // Assert
+        assertEquals(first.toLines(), second.toLines());
+        assertNotEquals(first.toLines(), other.toLines());
+    }
+
+    @Test
+    public void testRunsOfOneSimulatorAreIndependent() {
+        // Arrange
+        TeaShopSimulator simulator = simulator(new TeaShopSimulator.Poisson(0.2), 7);
+
+        // Act
+        TeaShopSimulator.Report first = simulator.run(1000);
+        TeaShopSimulator.Report second = simulator.run(1000);
+
+        // Assert - the second run starts with idle kettles and fresh counters
+        assertEquals(first.toLines(), second.toLines());
+    }
+
+    @Test
+    public void testEveryOrderIsServed() {
+        // Act
+        TeaShopSimulator.Report report = run(new TeaShopSimulator.Poisson(0.1), 1, 10_000);
+
+        // Assert - most orders wait at most 120s for a kettle (longer only when all are busy), then boil and steep
+        assertEquals(10_000, report.orders());
+        assertTrue(report.readyWaitSeconds()[0] >= 60 + 120);
+        assertTrue(report.kettleWaitSeconds()[1] <= 120);
+        assertTrue(report.kettleUtilization() > 0 && report.kettleUtilization() < 1);
+        // About 6 orders per minute arrive, and the kettles keep up
+        assertEquals(6, report.ordersPerMinute(), 0.5);
+    }
+
+    @Test
+    public void testOverloadedKettlesMakeOrdersWait() {
+        // Act - 2 kettles of 8 cups boil at most 16 cups a minute, far fewer than arrive
+        TeaShopSimulator.Report report = run(new TeaShopSimulator.Poisson(2), 1, 20_000);
+
+        // Assert
+        assertTrue(report.kettleUtilization() > 0.95);
+        assertTrue(report.kettleWaitSeconds()[1] > 1000);
+        assertTrue(report.ordersPerMinute() < 17);
+    }
+
+    @Test
+    public void testBurstsFollowTheirRates() {
+        // Arrange - 1 arrival per second in the first 100 s of every 1000 s, 0.01 per second otherwise
+        TeaShopSimulator.Bursts bursts = new TeaShopSimulator.Bursts(0.01, 1, 1000, 100);
+        SplittableRandom random = new SplittableRandom(3);
+        int inBursts = 0;
+        double time = 0;
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            time = bursts.next(time, random);
+            if (time % 1000 < 100) {
+                inBursts++;
+            }
+        }
+
+        // Assert - 100 of the 109 expected arrivals of a period are in its burst
+        assertEquals(100.0 / 109, inBursts / 100_000.0, 0.01);
+    }
+
+    @Test
+    public void testRejectInvalidConfiguration() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new TeaShopSimulator.Poisson(0));
+        assertThrows(IllegalArgumentException.class, () -> new TeaShopSimulator.Bursts(1, 2, 60, 120));
+        assertThrows(IllegalArgumentException.class, () -> new TeaShopSimulator(List.of(),
+                new TeaShopSimulator.Poisson(1), () -> new KettleScheduler(1, 1, 0, 0, 0), 0));
+        TeaShopSimulator simulator = simulator(new TeaShopSimulator.Poisson(1), 0);
+        assertThrows(IllegalArgumentException.class, () -> simulator.run(0));
+        assertThrows(IllegalArgumentException.class, () -> simulator.run(-1));
+    }
+
+    @Test
+    public void testReportLines() {
+        // Act
+        List<String> lines = run(new TeaShopSimulator.Poisson(0.1), 1, 100).toLines();
+
+        // Assert
+        assertEquals("=== Tea Shop Simulation Report ===", lines.get(0));
+        assertTrue(lines.get(1).startsWith("Orders: 100 in "));
+        assertEquals(7, lines.size());
+    }
+}
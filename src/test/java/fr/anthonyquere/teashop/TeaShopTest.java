@@ -4,6 +4,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
@@ -41,6 +42,21 @@ public class TeaShopTest {
         assertNotNull(cup);
     }
     
+    @Test
+    public void testShopsShareIdenticalTeas() {
+        // Arrange
+        TeaShop otherShop = new TeaShop(80);
+        teaShop.addTea(greenTea);
+        otherShop.addTea(new Tea("Green Tea", 120, 80, true));
+        
+        // Act
+        TeaCup cup = teaShop.prepareTea("Green Tea");
+        TeaCup otherCup = otherShop.prepareTea("Green Tea");
+        
+        // Assert
+        assertSame(cup.getTea(), otherCup.getTea());
+    }
+    
     @Test
     public void testPrepareUnavailableTea() {
         // Act & Assert
@@ -4,6 +4,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.util.List;
 
@@ -30,21 +32,37 @@ public class TeaTest {
     }
     
     @Test
-    public void testSetters() {
+    public void testWithers() {
         // Arrange
-        Tea tea = new Tea("Initial", 60, 70, false);
+        Tea initial = new Tea("Initial", 60, 70, false);
         
         // Act
-        tea.setName("Earl Grey");
-        tea.setSteepingTimeSeconds(180);
-        tea.setIdealTemperatureCelsius(90);
-        tea.setLoose(true);
+        Tea tea = initial.withName("Earl Grey")
+                .withSteepingTimeSeconds(180)
+                .withIdealTemperatureCelsius(90)
+                .withLoose(true);
         
         // Assert
         assertEquals("Earl Grey", tea.getName());
         assertEquals(180, tea.getSteepingTimeSeconds());
         assertEquals(90, tea.getIdealTemperatureCelsius());
         assertTrue(tea.isLoose());
+        assertEquals(new Tea("Initial", 60, 70, false), initial);
+    }
+    
+    @Test
+    public void testOfReturnsSharedInstance() {
+        // Act
+        Tea first = Tea.of("Oolong", 240, 90, true);
+        Tea second = Tea.of("Oolong", 240, 90, true);
+        Tea copy = new Tea("Oolong", 240, 90, true);
+        
+        // Assert
+        assertSame(first, second);
+        assertNotSame(first, copy);
+        assertEquals(first, copy);
+        assertSame(first, copy.intern());
+        assertNotSame(first, Tea.of("Oolong", 240, 90, false));
     }
     
     @Test
@@ -0,0 +1,69 @@
+package fr.anthonyquere.teashop;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TeaTraceAnalyzerTest {
+
+    @Test
+    public void testRecordingIsSummarizedPerTea(@TempDir Path directory) throws Exception {
+        // Arrange
+        ManualClock clock = new ManualClock(1000);
+        TeaShop shop = new TeaShop(80, clock);
+        shop.addTea(new Tea("Green Tea", 120, 80, true));
+        shop.addTea(new Tea("Earl Grey", 180, 95, false));
+        SteepingTimer timer = new SteepingTimer(clock.currentTimeSeconds());
+        Path file = directory.resolve("teashop.jfr");
+
+        // Act - the timer is driven 10 seconds after the green teas are ready
+        try (Recording recording = new Recording(TeaTraceAnalyzer.settings())) {
+            recording.start();
+            shop.prepareTea("Green Tea", timer, cup -> { });
+            shop.prepareTea("Green Tea", timer, cup -> { });
+            shop.prepareTea("Earl Grey", timer, cup -> { });
+            assertThrows(IllegalArgumentException.class, () -> shop.prepareTea("Matcha"));
+            clock.advance(130);
+            timer.advanceTo(clock.currentTimeSeconds());
+            recording.stop();
+            recording.dump(file);
+        }
+        List<String> report = TeaTraceAnalyzer.analyze(file);
+
+        // Assert
+        assertEquals("=== Tea Shop Trace ===", report.get(0));
+        assertEquals("Cups of water poured: 3", report.get(1));
+        assertEquals("\nEarl Grey: 1 order(s), 0 unavailable", report.get(2));
+        assertTrue(report.get(3).startsWith("  prepareTea: p50 "));
+        assertEquals("\nGreen Tea: 2 order(s), 0 unavailable", report.get(4));
+        assertEquals("  steeping: 2 cup(s), p50 130 s, p99 130 s, max 130 s", report.get(6));
+        assertEquals("  noticed after steeping: p50 10 s, max 10 s", report.get(7));
+        assertEquals("\nMatcha: 0 order(s), 1 unavailable", report.get(8));
+    }
+
+    @Test
+    public void testEventsAreDisabledByDefault(@TempDir Path directory) throws Exception {
+        // Arrange
+        TeaShop shop = new TeaShop(80);
+        shop.addTea(new Tea("Green Tea", 120, 80, true));
+        Path file = directory.resolve("default.jfr");
+
+        // Act
+        try (Recording recording = new Recording()) {
+            recording.start();
+            shop.prepareTea("Green Tea");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Assert
+        assertEquals(List.of("=== Tea Shop Trace ===", "Cups of water poured: 0"), TeaTraceAnalyzer.analyze(file));
+    }
+}